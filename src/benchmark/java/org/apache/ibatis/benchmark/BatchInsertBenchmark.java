@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserts rows with the batch executor, rolling them back so that every invocation inserts the same rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+  @Param({ "100", "1000" })
+  public int rows;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private Date created;
+
+  @Setup
+  public void setUp() throws Exception {
+    sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory("batch");
+    created = new Date();
+  }
+
+  @Benchmark
+  public List<BatchResult> batchInsert() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BlogMapper mapper = sqlSession.getMapper(BlogMapper.class);
+      int firstId = (BenchmarkDatabase.AUTHORS + 1) * BenchmarkDatabase.POSTS_PER_BLOG;
+      for (int i = 0; i < rows; i++) {
+        Post post = new Post();
+        post.setId(firstId + i);
+        post.setBlogId(1);
+        post.setCreated(created);
+        post.setSubject("Subject " + i);
+        post.setBody("Body " + i);
+        mapper.insertPost(post);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      sqlSession.rollback(true);
+      return results;
+    }
+  }
+
+}
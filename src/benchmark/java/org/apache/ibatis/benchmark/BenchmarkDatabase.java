@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * The in-memory database the benchmarks run against: authors, each with a blog of a few posts.
+ */
+public final class BenchmarkDatabase {
+
+  public static final int AUTHORS = 1000;
+  public static final int POSTS_PER_BLOG = 10;
+
+  private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+  private BenchmarkDatabase() {
+    // Prevent Instantiation of Static Class
+  }
+
+  public static String url(String name) {
+    return "jdbc:hsqldb:mem:" + name;
+  }
+
+  public static SqlSessionFactory createSqlSessionFactory(String name) throws SQLException {
+    PooledDataSource dataSource = new PooledDataSource(DRIVER, url(name), "sa", "");
+    populate(dataSource);
+    Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(BlogMapper.class);
+    configuration.addMapper(CachedBlogMapper.class);
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  public static void populate(DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("drop table post if exists");
+        statement.execute("drop table blog if exists");
+        statement.execute("drop table author if exists");
+        statement.execute("create table author (id int primary key, username varchar(255), email varchar(255), bio varchar(1000))");
+        statement.execute("create table blog (id int primary key, author_id int, title varchar(255))");
+        statement.execute("create table post (id int primary key, blog_id int, created timestamp, subject varchar(255), body varchar(4000))");
+      }
+      try (PreparedStatement authors = connection.prepareStatement("insert into author values (?, ?, ?, ?)");
+          PreparedStatement blogs = connection.prepareStatement("insert into blog values (?, ?, ?)");
+          PreparedStatement posts = connection.prepareStatement("insert into post values (?, ?, ?, ?, ?)")) {
+        Timestamp created = new Timestamp(System.currentTimeMillis());
+        for (int id = 1; id <= AUTHORS; id++) {
+          authors.setInt(1, id);
+          authors.setString(2, "author" + id);
+          authors.setString(3, "author" + id + "@example.com");
+          authors.setString(4, "The biography of author " + id);
+          authors.addBatch();
+          blogs.setInt(1, id);
+          blogs.setInt(2, id);
+          blogs.setString(3, "The blog of author " + id);
+          blogs.addBatch();
+          for (int post = 0; post < POSTS_PER_BLOG; post++) {
+            posts.setInt(1, id * POSTS_PER_BLOG + post);
+            posts.setInt(2, id);
+            posts.setTimestamp(3, created);
+            posts.setString(4, "Post " + post + " of blog " + id);
+            posts.setString(5, "The body of post " + post + " of blog " + id);
+            posts.addBatch();
+          }
+        }
+        authors.executeBatch();
+        blogs.executeBatch();
+        posts.executeBatch();
+      }
+      if (!connection.getAutoCommit()) {
+        connection.commit();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CompactCacheKey;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads from a second level cache, and builds and looks up cache keys.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+  private static final String STATEMENT_ID = "org.apache.ibatis.benchmark.BlogMapper.selectAuthor";
+  private static final String SQL = "select id, username, email, bio from author where id = ?";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final Map<CacheKey, Object> keys = new HashMap<>();
+
+  @Setup
+  public void setUp() throws Exception {
+    sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory("cache");
+    // fill the cache, it is only written on commit
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CachedBlogMapper mapper = sqlSession.getMapper(CachedBlogMapper.class);
+      for (int id = 1; id <= BenchmarkDatabase.AUTHORS; id++) {
+        mapper.selectAuthor(id);
+      }
+      sqlSession.commit();
+    }
+    for (int id = 1; id <= BenchmarkDatabase.AUTHORS; id++) {
+      keys.put(newCacheKey(id), id);
+      keys.put(newCompactCacheKey(id), id);
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Author secondLevelCacheRead() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(CachedBlogMapper.class).selectAuthor(SelectBenchmark.randomId());
+    }
+  }
+
+  @Benchmark
+  public Object cacheKeyLookup() {
+    return keys.get(newCacheKey(SelectBenchmark.randomId()));
+  }
+
+  @Benchmark
+  public Object compactCacheKeyLookup() {
+    return keys.get(newCompactCacheKey(SelectBenchmark.randomId()));
+  }
+
+  private static CacheKey newCacheKey(int id) {
+    CacheKey key = new CacheKey();
+    key.update(STATEMENT_ID);
+    key.update(0);
+    key.update(Integer.MAX_VALUE);
+    key.update(SQL);
+    key.update(id);
+    key.update("benchmark");
+    return key;
+  }
+
+  private static CacheKey newCompactCacheKey(int id) {
+    return CompactCacheKey.builder(6).updateAll(STATEMENT_ID, 0, Integer.MAX_VALUE, SQL, id, "benchmark").build();
+  }
+
+}
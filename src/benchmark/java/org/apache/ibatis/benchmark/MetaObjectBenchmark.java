@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.LambdaReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes properties through {@link MetaObject}, as the result set handler does for every mapped column,
+ * with reflective and generated accessors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MetaObjectBenchmark {
+
+  @Param({ "default", "lambda" })
+  public String reflectorFactory;
+
+  private ReflectorFactory factory;
+  private Blog blog;
+
+  @Setup
+  public void setUp() {
+    factory = "lambda".equals(reflectorFactory) ? new LambdaReflectorFactory() : new DefaultReflectorFactory();
+    blog = new Blog();
+    blog.setAuthor(new Author());
+  }
+
+  @Benchmark
+  public Object setAndGetProperty() {
+    MetaObject metaObject = MetaObject.forObject(blog, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, factory);
+    metaObject.setValue("title", "title");
+    return metaObject.getValue("title");
+  }
+
+  @Benchmark
+  public Object setAndGetNestedProperty() {
+    MetaObject metaObject = MetaObject.forObject(blog, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, factory);
+    metaObject.setValue("author.username", "username");
+    return metaObject.getValue("author.username");
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checks connections out of a pool and returns them, with more threads than connections.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class PoolBenchmark {
+
+  @Param({ "pooled", "concurrent" })
+  public String pool;
+
+  private PooledDataSource dataSource;
+
+  @Setup
+  public void setUp() throws SQLException {
+    String url = BenchmarkDatabase.url("pool");
+    dataSource = "concurrent".equals(pool)
+        ? new ConcurrentPooledDataSource("org.hsqldb.jdbcDriver", url, "sa", "")
+        : new PooledDataSource("org.hsqldb.jdbcDriver", url, "sa", "");
+    dataSource.setPoolMaximumActiveConnections(8);
+    dataSource.setPoolMaximumIdleConnections(8);
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.forceCloseAll();
+  }
+
+  @Benchmark
+  public boolean checkout() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      return connection.getAutoCommit();
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selects through mapper proxies: a single row, a nested result map over a join and an <code>in</code> clause built
+ * by <code>&lt;foreach&gt;</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectBenchmark {
+
+  @Param({ "10", "100" })
+  public int inClauseSize;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private MappedStatement selectAuthorsIn;
+  private List<Integer> ids;
+  private Map<String, Object> parameter;
+
+  @Setup
+  public void setUp() throws Exception {
+    sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory("select");
+    selectAuthorsIn = sqlSessionFactory.getConfiguration().getMappedStatement(BlogMapper.class.getName() + ".selectAuthorsIn");
+    ids = new ArrayList<>();
+    for (int i = 1; i <= inClauseSize; i++) {
+      ids.add(i);
+    }
+    // as DefaultSqlSession wraps a list parameter
+    parameter = new StrictMap<>();
+    parameter.put("list", ids);
+  }
+
+  @Benchmark
+  public Author selectOne() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(BlogMapper.class).selectAuthor(randomId());
+    }
+  }
+
+  @Benchmark
+  public Blog selectNestedResultMap() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(BlogMapper.class).selectBlogWithPosts(randomId());
+    }
+  }
+
+  @Benchmark
+  public List<Author> selectForeach() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(BlogMapper.class).selectAuthorsIn(ids);
+    }
+  }
+
+  @Benchmark
+  public BoundSql buildForeachSql() {
+    // the dynamic SQL alone, without the database
+    return selectAuthorsIn.getBoundSql(parameter);
+  }
+
+  static int randomId() {
+    return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.AUTHORS) + 1;
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Maps rows of {@value #COLUMNS} columns, with an explicit result map and with auto-mapping, reading the columns by
+ * label or by index.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WideRowBenchmark {
+
+  static final int COLUMNS = 60;
+  static final int ROWS = 100;
+
+  @Param({ "false", "true" })
+  public boolean useColumnIndex;
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Setup
+  public void setUp() throws Exception {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", BenchmarkDatabase.url("wide"), "sa", "");
+    populate(dataSource);
+    Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.setUseColumnIndex(useColumnIndex);
+    StaticSqlSource sqlSource = new StaticSqlSource(configuration, "select * from wide_row");
+    List<ResultMapping> resultMappings = new ArrayList<>();
+    for (int i = 1; i <= COLUMNS; i++) {
+      Class<?> javaType = i % 2 == 0 ? Integer.class : String.class;
+      resultMappings.add(new ResultMapping.Builder(configuration, "property" + i, "c" + i, javaType).build());
+    }
+    ResultMap mapped = new ResultMap.Builder(configuration, "wideRowMap", HashMap.class, resultMappings, false).build();
+    ResultMap autoMapped = new ResultMap.Builder(configuration, "wideRowAutoMap", HashMap.class, new ArrayList<>()).build();
+    configuration.addMappedStatement(new MappedStatement.Builder(configuration, "selectMapped", sqlSource, SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(mapped)).build());
+    configuration.addMappedStatement(new MappedStatement.Builder(configuration, "selectAutoMapped", sqlSource, SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(autoMapped)).build());
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Benchmark
+  public List<Object> selectMapped() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.selectList("selectMapped");
+    }
+  }
+
+  @Benchmark
+  public List<Object> selectAutoMapped() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.selectList("selectAutoMapped");
+    }
+  }
+
+  private static void populate(PooledDataSource dataSource) throws Exception {
+    StringBuilder create = new StringBuilder("create table wide_row (");
+    StringBuilder insert = new StringBuilder("insert into wide_row values (");
+    for (int i = 1; i <= COLUMNS; i++) {
+      String separator = i == COLUMNS ? ")" : ", ";
+      create.append('c').append(i).append(i % 2 == 0 ? " int" : " varchar(50)").append(separator);
+      insert.append('?').append(separator);
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("drop table wide_row if exists");
+        statement.execute(create.toString());
+      }
+      try (PreparedStatement statement = connection.prepareStatement(insert.toString())) {
+        for (int row = 0; row < ROWS; row++) {
+          for (int i = 1; i <= COLUMNS; i++) {
+            if (i % 2 == 0) {
+              statement.setInt(i, row * i);
+            } else {
+              statement.setString(i, "value " + row + "." + i);
+            }
+          }
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+      if (!connection.getAutoCommit()) {
+        connection.commit();
+      }
+    }
+  }
+
+}
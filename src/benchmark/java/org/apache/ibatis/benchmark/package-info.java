@@ -0,0 +1,23 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+/**
+ * JMH benchmarks of the hot paths of MyBatis against an in-memory HSQLDB database.
+ * <p>
+ * They are not part of the default build, run them with <code>mvn -Pbenchmarks verify</code>, or only some of them
+ * with <code>-Dbenchmark=SelectBenchmark</code>. The results are written to <code>target/jmh-result.json</code>, so
+ * that a change can be compared with the baseline of the previous version built on the same machine.
+ */
+package org.apache.ibatis.benchmark;
@@ -132,4 +132,40 @@ public @interface Options {
    * @return result set names that separate with comma(',')
    */
   String resultSets() default "";
+
+  /**
+   * Returns whether maps the rows to result objects using a pool of worker threads.
+   * <p>
+   * This is applied only to a result map that does not have nested result maps, nested selects and multiple result sets.
+   * </p>
+   *
+   * @return {@code true} if maps the rows in parallel; {@code false} if otherwise
+   * @since 3.5.4
+   */
+  boolean parallelMapping() default false;
+
+  /**
+   * Returns the number of rows after which the batch executor executes the pending batches.
+   *
+   * @return the batch size; {@code -1} to use the {@code defaultBatchSize} setting
+   * @since 3.5.4
+   */
+  int batchSize() default -1;
+
+  /**
+   * Returns the number of rows inserted by each statement when the insert is given a collection, its VALUES row
+   * being repeated for each of them. The remaining rows are inserted one by one.
+   *
+   * @return the number of rows; {@code -1} to insert the rows one by one
+   * @since 3.5.4
+   */
+  int multiRowInsertSize() default -1;
+
+  /**
+   * Returns whether the results are kept in the local cache of the session once the outermost query is complete.
+   *
+   * @return {@code false} to only keep them while the outermost query is running
+   * @since 3.5.4
+   */
+  boolean useLocalCache() default true;
 }
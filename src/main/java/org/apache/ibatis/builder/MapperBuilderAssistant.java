@@ -24,12 +24,15 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.function.Consumer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.mapping.CacheBuilder;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -128,6 +131,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean readWrite,
       boolean blocking,
       Properties props) {
+    CacheStatistics statistics = new CacheStatistics(currentNamespace);
     Cache cache = new CacheBuilder(currentNamespace)
         .implementation(valueOrDefault(typeClass, PerpetualCache.class))
         .addDecorator(valueOrDefault(evictionClass, LruCache.class))
@@ -136,8 +140,13 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .readWrite(readWrite)
         .blocking(blocking)
         .properties(props)
+        .statistics(statistics)
         .build();
     configuration.addCache(cache);
+    configuration.addCacheStatistics(statistics);
+    if (!readWrite) {
+      configuration.addReadOnlyCache(currentNamespace);
+    }
     currentCache = cache;
     return cache;
   }
@@ -262,6 +271,41 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String databaseId,
       LanguageDriver lang,
       String resultSets) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, null);
+  }
+
+  /**
+   * Adds a mapped statement whose other attributes, such as its batch size, are set on its builder.
+   *
+   * @param statementBuilderCustomizer sets the attributes that have no parameter here, may be null
+   * @since 3.5.4
+   */
+  public MappedStatement addMappedStatement(
+      String id,
+      SqlSource sqlSource,
+      StatementType statementType,
+      SqlCommandType sqlCommandType,
+      Integer fetchSize,
+      Integer timeout,
+      String parameterMap,
+      Class<?> parameterType,
+      String resultMap,
+      Class<?> resultType,
+      ResultSetType resultSetType,
+      boolean flushCache,
+      boolean useCache,
+      boolean resultOrdered,
+      KeyGenerator keyGenerator,
+      String keyProperty,
+      String keyColumn,
+      String databaseId,
+      LanguageDriver lang,
+      String resultSets,
+      Consumer<MappedStatement.Builder> statementBuilderCustomizer) {
 
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -292,8 +336,15 @@ public class MapperBuilderAssistant extends BaseBuilder {
     if (statementParameterMap != null) {
       statementBuilder.parameterMap(statementParameterMap);
     }
+    if (statementBuilderCustomizer != null) {
+      statementBuilderCustomizer.accept(statementBuilder);
+    }
 
     MappedStatement statement = statementBuilder.build();
+    if (statement.getMultiRowInsertSize() != null
+        && (sqlCommandType != SqlCommandType.INSERT || keyGenerator instanceof SelectKeyGenerator)) {
+      throw new BuilderException("The multiRowInsertSize of statement " + id + " requires an insert without selectKey.");
+    }
     configuration.addMappedStatement(statement);
     return statement;
   }
@@ -0,0 +1,197 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Rewrites the single row insert of a statement into an insert of several rows, repeating its <code>VALUES</code>
+ * row once per element of the list it is given, e.g. <code>insert into t (a, b) values (?, ?), (?, ?)</code>.
+ * <p>
+ * The SQL of every element must be the same, and must end with the row of values; only the clauses following the
+ * row, e.g. <code>on conflict do nothing</code>, may follow it and they may not have parameters.
+ *
+ * @since 3.5.4
+ */
+public class MultiRowInsertSqlSource implements SqlSource {
+
+  private static final String ROW_PARAMETER_PREFIX = "__row_";
+
+  private final Configuration configuration;
+  private final SqlSource sqlSource;
+
+  public MultiRowInsertSqlSource(Configuration configuration, SqlSource sqlSource) {
+    this.configuration = configuration;
+    this.sqlSource = sqlSource;
+  }
+
+  /**
+   * Gets the rows of the parameter of a multi-row insert.
+   *
+   * @param parameterObject the parameter of the statement, as passed to the executor
+   * @return the rows, or null if the parameter is not a collection or an array
+   */
+  public static List<?> getRows(Object parameterObject) {
+    Object rows = parameterObject;
+    if (parameterObject instanceof StrictMap) {
+      // the collection or the array wrapped by the session
+      Map<?, ?> map = (Map<?, ?>) parameterObject;
+      rows = map.containsKey("collection") ? map.get("collection") : map.get("array");
+    } else if (parameterObject instanceof ParamMap) {
+      // a single collection or array parameter, e.g. named by @Param, is both under its name and under param1
+      rows = getSingleValue((Map<?, ?>) parameterObject);
+    }
+    if (rows instanceof List) {
+      return (List<?>) rows;
+    } else if (rows instanceof Collection) {
+      return new ArrayList<>((Collection<?>) rows);
+    } else if (rows instanceof Object[]) {
+      return Arrays.asList((Object[]) rows);
+    }
+    return null;
+  }
+
+  private static Object getSingleValue(Map<?, ?> map) {
+    Object value = null;
+    for (Object mapValue : map.values()) {
+      if (value != null && mapValue != value) {
+        return null;
+      }
+      value = mapValue;
+    }
+    return value;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    final List<?> rows = (List<?>) parameterObject;
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    final List<ParameterMapping> parameterMappings = new ArrayList<>();
+    final List<Object> values = new ArrayList<>();
+    StringBuilder sql = null;
+    String rowSql = null;
+    int[] valuesRow = null;
+    for (int i = 0; i < rows.size(); i++) {
+      final Object row = rows.get(i);
+      final BoundSql rowBoundSql = sqlSource.getBoundSql(row);
+      if (rowSql == null) {
+        rowSql = rowBoundSql.getSql();
+        valuesRow = findValuesRow(rowSql);
+        sql = new StringBuilder(rowSql.length() * rows.size()).append(rowSql, 0, valuesRow[1]);
+      } else if (!rowSql.equals(rowBoundSql.getSql())) {
+        throw new BuilderException("The rows of a multi-row insert must have the same SQL, but got '" + rowSql
+            + "' and '" + rowBoundSql.getSql() + "'.");
+      } else {
+        sql.append(", ").append(rowSql, valuesRow[0], valuesRow[1]);
+      }
+      final MetaObject metaObject = row == null ? null : configuration.newMetaObject(row);
+      for (ParameterMapping rowMapping : rowBoundSql.getParameterMappings()) {
+        final String property = rowMapping.getProperty();
+        final Object value;
+        if (rowBoundSql.hasAdditionalParameter(property)) {
+          value = rowBoundSql.getAdditionalParameter(property);
+        } else if (row == null) {
+          value = null;
+        } else if (typeHandlerRegistry.hasTypeHandler(row.getClass())) {
+          value = row;
+        } else {
+          value = metaObject.getValue(property);
+        }
+        parameterMappings.add(new ParameterMapping.Builder(configuration, ROW_PARAMETER_PREFIX + values.size(), rowMapping.getTypeHandler())
+            .javaType(rowMapping.getJavaType())
+            .jdbcType(rowMapping.getJdbcType())
+            .jdbcTypeName(rowMapping.getJdbcTypeName())
+            .numericScale(rowMapping.getNumericScale())
+            .build());
+        values.add(value);
+      }
+    }
+    if (sql == null) {
+      throw new BuilderException("A multi-row insert needs at least one row.");
+    }
+    sql.append(rowSql, valuesRow[1], rowSql.length());
+    final BoundSql boundSql = new BoundSql(configuration, sql.toString(), parameterMappings, parameterObject);
+    for (int i = 0; i < values.size(); i++) {
+      boundSql.setAdditionalParameter(ROW_PARAMETER_PREFIX + i, values.get(i));
+    }
+    return boundSql;
+  }
+
+  /**
+   * Finds the parenthesized row following the last <code>values</code> keyword.
+   *
+   * @return the start and the end (exclusive) of the row
+   */
+  static int[] findValuesRow(String sql) {
+    final String lowerCaseSql = sql.toLowerCase(Locale.ENGLISH);
+    int start = -1;
+    int end = -1;
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(') {
+        if (depth++ == 0 && isAfterValuesKeyword(lowerCaseSql, i)) {
+          start = i;
+        }
+      } else if (c == ')') {
+        if (--depth == 0 && start >= 0 && end < start) {
+          end = i + 1;
+        }
+      } else if (c == '?' && (start < 0 || end > start)) {
+        // a parameter outside of the row could not be repeated
+        start = -1;
+        break;
+      }
+    }
+    if (start < 0 || end < start) {
+      throw new BuilderException("Cannot rewrite '" + sql + "' as a multi-row insert, it must end with a single "
+          + "VALUES row and have no parameter outside of it.");
+    }
+    return new int[] { start, end };
+  }
+
+  private static boolean isAfterValuesKeyword(String lowerCaseSql, int index) {
+    int i = index - 1;
+    while (i >= 0 && Character.isWhitespace(lowerCaseSql.charAt(i))) {
+      i--;
+    }
+    int keywordStart = i - "values".length() + 1;
+    return keywordStart >= 0 && lowerCaseSql.startsWith("values", keywordStart)
+        && (keywordStart == 0 || !Character.isLetterOrDigit(lowerCaseSql.charAt(keywordStart - 1)));
+  }
+
+}
@@ -23,6 +23,7 @@ import javax.sql.DataSource;
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.executor.BatchResultListener;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
@@ -270,6 +271,16 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setAutoMappingBehavior(AutoMappingBehavior.valueOf(props.getProperty("autoMappingBehavior", "PARTIAL")));
     configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.valueOf(props.getProperty("autoMappingUnknownColumnBehavior", "NONE")));
     configuration.setCacheEnabled(booleanValueOf(props.getProperty("cacheEnabled"), true));
+    configuration.setCacheStatisticsMBeansEnabled(booleanValueOf(props.getProperty("cacheStatisticsMBeansEnabled"), false));
+    configuration.setMappingStatisticsEnabled(booleanValueOf(props.getProperty("mappingStatisticsEnabled"), false));
+    configuration.setBatchGroupingEnabled(booleanValueOf(props.getProperty("batchGroupingEnabled"), false));
+    configuration.setDefaultBatchSize(integerValueOf(props.getProperty("defaultBatchSize"), null));
+    configuration.setMaxBatchRows(integerValueOf(props.getProperty("maxBatchRows"), null));
+    configuration.setBatchResultListener((BatchResultListener) createInstance(props.getProperty("batchResultListener")));
+    configuration.setCacheLoadCoalescingEnabled(booleanValueOf(props.getProperty("cacheLoadCoalescingEnabled"), false));
+    configuration.setCacheLoadCoalescingTimeout(integerValueOf(props.getProperty("cacheLoadCoalescingTimeout"), 10000));
+    configuration.setParallelMappingBatchSize(integerValueOf(props.getProperty("parallelMappingBatchSize"), 256));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), 0));
     configuration.setProxyFactory((ProxyFactory) createInstance(props.getProperty("proxyFactory")));
     configuration.setLazyLoadingEnabled(booleanValueOf(props.getProperty("lazyLoadingEnabled"), false));
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
@@ -279,10 +290,15 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setStreamingFetchSize(integerValueOf(props.getProperty("streamingFetchSize"), null));
+    configuration.setFetchBufferSize(integerValueOf(props.getProperty("fetchBufferSize"), null));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
+    configuration.setUseColumnIndex(booleanValueOf(props.getProperty("useColumnIndex"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setLocalCacheSize(integerValueOf(props.getProperty("localCacheSize"), null));
+    configuration.setLocalCacheMaxRows(integerValueOf(props.getProperty("localCacheMaxRows"), null));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
@@ -66,7 +66,9 @@ public class XMLStatementBuilder extends BaseBuilder {
     boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
     boolean flushCache = context.getBooleanAttribute("flushCache", !isSelect);
     boolean useCache = context.getBooleanAttribute("useCache", isSelect);
+    boolean useLocalCache = context.getBooleanAttribute("useLocalCache", true);
     boolean resultOrdered = context.getBooleanAttribute("resultOrdered", false);
+    boolean parallelMapping = context.getBooleanAttribute("parallelMapping", false);
 
     // Include Fragments before parsing
     XMLIncludeTransformer includeParser = new XMLIncludeTransformer(configuration, builderAssistant);
@@ -97,6 +99,8 @@ public class XMLStatementBuilder extends BaseBuilder {
     StatementType statementType = StatementType.valueOf(context.getStringAttribute("statementType", StatementType.PREPARED.toString()));
     Integer fetchSize = context.getIntAttribute("fetchSize");
     Integer timeout = context.getIntAttribute("timeout");
+    Integer batchSize = context.getIntAttribute("batchSize");
+    Integer multiRowInsertSize = context.getIntAttribute("multiRowInsertSize");
     String parameterMap = context.getStringAttribute("parameterMap");
     String resultType = context.getStringAttribute("resultType");
     Class<?> resultTypeClass = resolveClass(resultType);
@@ -113,7 +117,12 @@ public class XMLStatementBuilder extends BaseBuilder {
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered,
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets,
+        statementBuilder -> statementBuilder
+            .parallelMapping(parallelMapping)
+            .batchSize(batchSize)
+            .multiRowInsertSize(multiRowInsertSize)
+            .useLocalCache(useLocalCache));
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -40,8 +40,8 @@ public class CacheKey implements Cloneable, Serializable {
     }
   };
 
-  private static final int DEFAULT_MULTIPLIER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  static final int DEFAULT_MULTIPLIER = 37;
+  static final int DEFAULT_HASHCODE = 17;
 
   private final int multiplier;
   private int hashcode;
@@ -62,10 +62,21 @@ public class CacheKey implements Cloneable, Serializable {
     updateAll(objects);
   }
 
+  // for CompactCacheKey, which keeps its own components
+  CacheKey(int hashcode) {
+    this.hashcode = hashcode;
+    this.multiplier = DEFAULT_MULTIPLIER;
+  }
+
   public int getUpdateCount() {
     return updateList.size();
   }
 
+  // for CompactCacheKey, which compares its components with the ones of a mutable key
+  Object getComponent(int index) {
+    return updateList.get(index);
+  }
+
   public void update(Object object) {
     int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
 
@@ -89,6 +100,9 @@ public class CacheKey implements Cloneable, Serializable {
     if (this == object) {
       return true;
     }
+    if (object instanceof CompactCacheKey) {
+      return object.equals(this);
+    }
     if (!(object instanceof CacheKey)) {
       return false;
     }
@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces the concurrent loads of a same cache entry, so that when a hot entry is missing from a second level cache
+ * only one session queries the database and the other ones wait for its result instead of all querying at once.
+ * <p>
+ * Unlike {@link org.apache.ibatis.cache.decorators.BlockingCache}, nothing is locked: the sessions wait on a future
+ * for at most the configured timeout and then load the entry on their own, and the future is removed as soon as the
+ * load completes. The waiting sessions receive the same objects as the loading one, so this must only be used for
+ * read-only caches. When the load fails, each waiting session loads the entry on its own. A load of the same entry
+ * started while the current thread is already loading it, e.g. by a nested select, does not wait.
+ *
+ * @since 3.5.4
+ */
+public class CacheLoadCoalescer {
+
+  /**
+   * Loads a missing entry, typically by querying the database.
+   *
+   * @param <T> the type of the entry
+   */
+  @FunctionalInterface
+  public interface Loader<T> {
+    T load() throws SQLException;
+  }
+
+  private final Map<LoadKey, Load> loads = new ConcurrentHashMap<>();
+
+  /**
+   * Loads an entry, or waits for a concurrent load of the same entry.
+   *
+   * @param <T> the type of the entry
+   * @param cache the cache the entry is loaded for
+   * @param key the key of the entry
+   * @param timeout the maximum time in milliseconds to wait for a concurrent load
+   * @param loader loads the entry
+   * @return the entry
+   * @throws SQLException if the loader fails
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T load(Cache cache, Object key, long timeout, Loader<T> loader) throws SQLException {
+    LoadKey loadKey = new LoadKey(cache, key);
+    Load load = new Load();
+    Load running = loads.putIfAbsent(loadKey, load);
+    if (running != null) {
+      if (running.owner == Thread.currentThread()) {
+        // waiting for its own load would only time out
+        return loader.load();
+      }
+      try {
+        return (T) running.future.get(timeout, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CacheException("Interrupted while waiting for a concurrent load of a cache entry.", e);
+      } catch (ExecutionException | TimeoutException e) {
+        // the load failed or takes too long, do not fail because of another session
+        return loader.load();
+      }
+    }
+    try {
+      T value = loader.load();
+      load.future.complete(value);
+      return value;
+    } catch (SQLException | RuntimeException | Error e) {
+      load.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(loadKey, load);
+    }
+  }
+
+  /**
+   * Gets the number of loads in progress.
+   *
+   * @return the number of loads
+   */
+  public int getLoadCount() {
+    return loads.size();
+  }
+
+  private static final class Load {
+    private final Thread owner = Thread.currentThread();
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+  }
+
+  private static final class LoadKey {
+    private final Cache cache;
+    private final Object key;
+
+    LoadKey(Cache cache, Object key) {
+      this.cache = cache;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof LoadKey)) {
+        return false;
+      }
+      LoadKey other = (LoadKey) o;
+      // caches are compared by identity, several caches may share an id
+      return cache == other.cache && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(cache) + key.hashCode();
+    }
+  }
+
+}
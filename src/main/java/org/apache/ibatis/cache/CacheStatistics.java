@@ -0,0 +1,316 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts what happens to a second level cache. A namespace cache records its statistics into the instance built with
+ * it, see {@link org.apache.ibatis.session.Configuration#getCacheStatistics(String)}.
+ * <p>
+ * Hits, misses, puts, removals and clears are recorded by <code>LoggingCache</code>, evictions by the size-bounded
+ * caches and loads, the queries run on a miss, by <code>CachingExecutor</code>. All counters are updated without
+ * locking.
+ *
+ * @since 3.5.4
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+  private final String id;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder removals = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder clears = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  // a registered MBean outlives its configuration unless it is unregistered, it must not keep the cache alive
+  private volatile WeakReference<Cache> cache = new WeakReference<>(null);
+  private volatile ObjectName objectName;
+
+  public CacheStatistics(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Sets the cache whose number of entries is reported. The cache is only weakly referenced.
+   *
+   * @param cache the cache
+   */
+  public void setCache(Cache cache) {
+    this.cache = new WeakReference<>(cache);
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut() {
+    puts.increment();
+  }
+
+  public void recordRemoval() {
+    removals.increment();
+  }
+
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  public void recordClear() {
+    clears.increment();
+  }
+
+  /**
+   * Records the query run because of a miss.
+   *
+   * @param nanos the time the query took in nanoseconds
+   */
+  public void recordLoad(long nanos) {
+    loads.increment();
+    loadTime.add(nanos);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    Cache target = cache.get();
+    return target == null ? 0 : target.getSize();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long requests = hitCount + misses.sum();
+    return requests == 0 ? 0 : (double) hitCount / (double) requests;
+  }
+
+  @Override
+  public long getPutCount() {
+    return puts.sum();
+  }
+
+  @Override
+  public long getRemovalCount() {
+    return removals.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getClearCount() {
+    return clears.sum();
+  }
+
+  @Override
+  public long getLoadCount() {
+    return loads.sum();
+  }
+
+  /**
+   * Gets the time spent running the queries of the misses.
+   *
+   * @return the time in milliseconds
+   */
+  @Override
+  public long getTotalLoadTime() {
+    return TimeUnit.NANOSECONDS.toMillis(loadTime.sum());
+  }
+
+  /**
+   * Gets the average time of the queries run because of a miss.
+   *
+   * @return the time in milliseconds
+   */
+  @Override
+  public long getAverageLoadTime() {
+    long loadCount = loads.sum();
+    return loadCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(loadTime.sum() / loadCount);
+  }
+
+  /**
+   * Resets all counters. Events recorded concurrently may be partially lost.
+   */
+  @Override
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    puts.reset();
+    removals.reset();
+    evictions.reset();
+    clears.reset();
+    loads.reset();
+    loadTime.reset();
+  }
+
+  /**
+   * Takes a consistent-enough copy of the counters, e.g. to compare it with a later one.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  }
+
+  /**
+   * Registers these statistics. The scope tells apart the caches with the same id of different configurations, e.g.
+   * of several <code>SqlSessionFactory</code> loading the same mappers.
+   *
+   * @param server the MBean server
+   * @param scope the scope, unique per configuration
+   * @return the name the statistics were registered with
+   * @throws JMException if the registration failed, e.g. because statistics with the same scope and id are already
+   *           registered
+   */
+  public ObjectName registerMBean(MBeanServer server, String scope) throws JMException {
+    ObjectName name = new ObjectName("org.apache.ibatis:type=CacheStatistics,scope=" + ObjectName.quote(scope)
+        + ",id=" + ObjectName.quote(id));
+    server.registerMBean(this, name);
+    objectName = name;
+    return name;
+  }
+
+  /**
+   * Unregisters these statistics, if they were registered.
+   *
+   * @param server the MBean server they were registered to
+   * @throws JMException if the unregistration failed
+   */
+  public void unregisterMBean(MBeanServer server) throws JMException {
+    ObjectName name = objectName;
+    objectName = null;
+    if (name != null && server.isRegistered(name)) {
+      server.unregisterMBean(name);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  /**
+   * An immutable copy of the counters of a {@link CacheStatistics}.
+   */
+  public static final class Snapshot {
+
+    private final String id;
+    private final int size;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long removalCount;
+    private final long evictionCount;
+    private final long clearCount;
+    private final long loadCount;
+    private final long totalLoadTime;
+
+    private Snapshot(CacheStatistics statistics) {
+      this.id = statistics.getId();
+      this.size = statistics.getSize();
+      this.hitCount = statistics.getHitCount();
+      this.missCount = statistics.getMissCount();
+      this.putCount = statistics.getPutCount();
+      this.removalCount = statistics.getRemovalCount();
+      this.evictionCount = statistics.getEvictionCount();
+      this.clearCount = statistics.getClearCount();
+      this.loadCount = statistics.getLoadCount();
+      this.totalLoadTime = statistics.getTotalLoadTime();
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    public long getMissCount() {
+      return missCount;
+    }
+
+    public double getHitRatio() {
+      long requests = hitCount + missCount;
+      return requests == 0 ? 0 : (double) hitCount / (double) requests;
+    }
+
+    public long getPutCount() {
+      return putCount;
+    }
+
+    public long getRemovalCount() {
+      return removalCount;
+    }
+
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    public long getClearCount() {
+      return clearCount;
+    }
+
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    public long getTotalLoadTime() {
+      return totalLoadTime;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheStatistics [" + id + "]: size=" + size + ", hits=" + hitCount + ", misses=" + missCount
+          + ", hitRatio=" + getHitRatio() + ", puts=" + putCount + ", removals=" + removalCount
+          + ", evictions=" + evictionCount + ", clears=" + clearCount + ", loads=" + loadCount
+          + ", totalLoadTime=" + totalLoadTime;
+    }
+  }
+
+}
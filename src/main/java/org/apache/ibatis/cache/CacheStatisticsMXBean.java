@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * The management interface of {@link CacheStatistics}, registered when the <code>cacheStatisticsMBeansEnabled</code>
+ * setting is on.
+ *
+ * @since 3.5.4
+ */
+public interface CacheStatisticsMXBean {
+
+  String getId();
+
+  int getSize();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  double getHitRatio();
+
+  long getPutCount();
+
+  long getRemovalCount();
+
+  long getEvictionCount();
+
+  long getClearCount();
+
+  long getLoadCount();
+
+  long getTotalLoadTime();
+
+  long getAverageLoadTime();
+
+  void reset();
+
+}
@@ -0,0 +1,206 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * An immutable {@link CacheKey}, built once by a {@link Builder} and then only hashed and compared.
+ * <p>
+ * The components are kept in an array sized up front instead of a growing list, a 64-bit hash is computed as the
+ * components are added to tell most unequal compact keys apart without comparing their components, and
+ * {@link #toString()} is computed once. A compact key is equal to any {@link CacheKey} with the same components and has
+ * the same {@link #hashCode()}. It cannot be updated, {@link #clone()} returns a mutable {@link CacheKey} with the
+ * same components to derive a new key from it.
+ *
+ * @since 3.5.4
+ */
+public final class CompactCacheKey extends CacheKey {
+
+  private static final long serialVersionUID = -3386525453212917424L;
+
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+  private static final long MULTIPLIER = 0xBF58476D1CE4E5B9L;
+
+  private final Object[] components;
+  private final int count;
+  private final long hash;
+  private transient String string;
+
+  private CompactCacheKey(Object[] components, int count, int hashcode, long hash) {
+    super(hashcode);
+    this.components = components;
+    this.count = count;
+    this.hash = mix(hash);
+  }
+
+  /**
+   * Creates a builder.
+   *
+   * @param expectedSize the expected number of components, the builder grows beyond it if needed
+   * @return the builder
+   */
+  public static Builder builder(int expectedSize) {
+    return new Builder(expectedSize);
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return count;
+  }
+
+  /**
+   * Gets the 64-bit hash of the components.
+   *
+   * @return the hash
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  @Override
+  public void update(Object object) {
+    throw new CacheException("Not allowed to update an immutable cache key instance, update a clone of it instead.");
+  }
+
+  @Override
+  public void updateAll(Object[] objects) {
+    throw new CacheException("Not allowed to update an immutable cache key instance, update a clone of it instead.");
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (object instanceof CompactCacheKey) {
+      CompactCacheKey other = (CompactCacheKey) object;
+      if (hash != other.hash || count != other.count) {
+        return false;
+      }
+      for (int i = 0; i < count; i++) {
+        if (!ArrayUtil.equals(components[i], other.components[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (!(object instanceof CacheKey)) {
+      return false;
+    }
+    CacheKey other = (CacheKey) object;
+    if (hashCode() != other.hashCode() || count != other.getUpdateCount()) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      if (!ArrayUtil.equals(components[i], other.getComponent(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    // computed as a mutable key does, so that equal keys of both kinds share their hash code
+    return super.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    String result = string;
+    if (result == null) {
+      StringJoiner joiner = new StringJoiner(":");
+      joiner.add(Long.toHexString(hash));
+      for (int i = 0; i < count; i++) {
+        joiner.add(ArrayUtil.toString(components[i]));
+      }
+      result = joiner.toString();
+      string = result;
+    }
+    return result;
+  }
+
+  @Override
+  public CacheKey clone() {
+    return new CacheKey(Arrays.copyOf(components, count));
+  }
+
+  private static long mix(long h) {
+    // the finalizer of MurmurHash3
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Builds a single {@link CompactCacheKey}.
+   */
+  public static final class Builder {
+
+    private Object[] components;
+    private int count;
+    private long hash = SEED;
+    // the hash code of a mutable key with the same components
+    private int hashcode = DEFAULT_HASHCODE;
+
+    private Builder(int expectedSize) {
+      this.components = new Object[Math.max(expectedSize, 1)];
+    }
+
+    public Builder update(Object object) {
+      if (components == null) {
+        throw new IllegalStateException("The cache key was already built.");
+      }
+      if (count == components.length) {
+        components = Arrays.copyOf(components, count * 2);
+      }
+      components[count++] = object;
+      int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
+      hash = (hash + baseHashCode) * MULTIPLIER;
+      hashcode = DEFAULT_MULTIPLIER * hashcode + baseHashCode * count;
+      return this;
+    }
+
+    public Builder updateAll(Object... objects) {
+      for (Object object : objects) {
+        update(object);
+      }
+      return this;
+    }
+
+    public int getUpdateCount() {
+      return count;
+    }
+
+    public CompactCacheKey build() {
+      if (components == null) {
+        throw new IllegalStateException("The cache key was already built.");
+      }
+      // the array is handed over to the key, the trailing free slots are never read
+      CompactCacheKey key = new CompactCacheKey(components, count, hashcode, hash);
+      components = null;
+      return key;
+    }
+  }
+
+}
@@ -39,6 +39,13 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isClearOnCommit(Cache cache) {
+    return getTransactionalCache(cache).isClearOnCommit();
+  }
+
   public void commit() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
@@ -19,6 +19,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * FIFO (first in, first out) cache decorator.
@@ -30,6 +31,7 @@ public class FifoCache implements Cache {
   private final Cache delegate;
   private final Deque<Object> keyList;
   private int size;
+  private CacheStatistics statistics;
 
   public FifoCache(Cache delegate) {
     this.delegate = delegate;
@@ -51,6 +53,16 @@ public class FifoCache implements Cache {
     this.size = size;
   }
 
+  /**
+   * Sets the statistics the evictions are recorded into.
+   *
+   * @param statistics the statistics
+   * @since 3.5.4
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     cycleKeyList(key);// 先进先出。将key值方法list的最后
@@ -78,6 +90,9 @@ public class FifoCache implements Cache {
     if (keyList.size() > size) {
       Object oldestKey = keyList.removeFirst();
       delegate.removeObject(oldestKey);
+      if (statistics != null) {
+        statistics.recordEviction();
+      }
     }
   }
 
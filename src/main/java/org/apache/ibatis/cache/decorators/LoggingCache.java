@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -26,14 +27,50 @@ public class LoggingCache implements Cache {
 
   private final Log log;
   private final Cache delegate;
+  private final CacheStatistics statistics;
+  // the deprecated counters are plain fields, only written for the subclasses that may read them
+  private final boolean countRequests;
+  /**
+   * @deprecated Kept for existing subclasses, only counted by a cache created with {@link #LoggingCache(Cache)}. Use
+   *             {@link #getStatistics()} instead.
+   */
+  @Deprecated
   protected int requests = 0;
+  /**
+   * @deprecated Kept for existing subclasses, only counted by a cache created with {@link #LoggingCache(Cache)}. Use
+   *             {@link #getStatistics()} instead.
+   */
+  @Deprecated
   protected int hits = 0;
 
   public LoggingCache(Cache delegate) {
+    this(delegate, new CacheStatistics(delegate.getId()), true);
+  }
+
+  /**
+   * Creates a cache that only counts the requests and hits in the statistics, so that it can be read by many threads
+   * at once without a lock.
+   *
+   * @since 3.5.4
+   */
+  public LoggingCache(Cache delegate, CacheStatistics statistics) {
+    this(delegate, statistics, false);
+  }
+
+  private LoggingCache(Cache delegate, CacheStatistics statistics, boolean countRequests) {
     this.delegate = delegate;
+    this.statistics = statistics;
+    this.countRequests = countRequests;
     this.log = LogFactory.getLog(getId());
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -47,14 +84,22 @@ public class LoggingCache implements Cache {
   @Override
   public void putObject(Object key, Object object) {
     delegate.putObject(key, object);
+    statistics.recordPut();
   }
 
   @Override
   public Object getObject(Object key) {
-    requests++;
+    if (countRequests) {
+      requests++;
+    }
     final Object value = delegate.getObject(key);
     if (value != null) {
-      hits++;
+      if (countRequests) {
+        hits++;
+      }
+      statistics.recordHit();
+    } else {
+      statistics.recordMiss();
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -64,12 +109,14 @@ public class LoggingCache implements Cache {
 
   @Override
   public Object removeObject(Object key) {
+    statistics.recordRemoval();
     return delegate.removeObject(key);
   }
 
   @Override
   public void clear() {
     delegate.clear();
+    statistics.recordClear();
   }
 
   @Override
@@ -83,7 +130,7 @@ public class LoggingCache implements Cache {
   }
 
   private double getHitRatio() {
-    return (double) hits / (double) requests;
+    return statistics.getHitRatio();
   }
 
 }
@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * Lru (least recently used) cache decorator.
@@ -30,6 +31,7 @@ public class LruCache implements Cache {
   private final Cache delegate;
   private Map<Object, Object> keyMap;
   private Object eldestKey;
+  private CacheStatistics statistics;
 
   public LruCache(Cache delegate) {
     this.delegate = delegate;
@@ -62,6 +64,16 @@ public class LruCache implements Cache {
     };
   }
 
+  /**
+   * Sets the statistics the evictions are recorded into.
+   *
+   * @param statistics the statistics
+   * @since 3.5.4
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     delegate.putObject(key, value);
@@ -90,6 +102,9 @@ public class LruCache implements Cache {
     if (eldestKey != null) {
       delegate.removeObject(eldestKey);
       eldestKey = null;
+      if (statistics != null) {
+        statistics.recordEviction();
+      }
     }
   }
 
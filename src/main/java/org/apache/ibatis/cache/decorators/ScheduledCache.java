@@ -16,17 +16,23 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * @author Clinton Begin
  */
 public class ScheduledCache implements Cache {
 
+  private static final AtomicLongFieldUpdater<ScheduledCache> LAST_CLEAR =
+      AtomicLongFieldUpdater.newUpdater(ScheduledCache.class, "lastClear");
+
   private final Cache delegate;
   protected long clearInterval;
-  protected long lastClear;
+  protected volatile long lastClear;
+  private CacheStatistics statistics;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -38,6 +44,16 @@ public class ScheduledCache implements Cache {
     this.clearInterval = clearInterval;
   }
 
+  /**
+   * Sets the statistics the clears on interval are recorded into.
+   *
+   * @param statistics the statistics
+   * @since 3.5.4
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -85,8 +101,16 @@ public class ScheduledCache implements Cache {
 
   private boolean clearWhenStale() {
     // 这里是每隔一段时间，都会清除数据
-    if (System.currentTimeMillis() - lastClear > clearInterval) {
-      clear();
+    long last = lastClear;
+    long now = System.currentTimeMillis();
+    if (now - last > clearInterval) {
+      // 多个线程同时发现过期时，只有一个线程执行清除
+      if (LAST_CLEAR.compareAndSet(this, last, now)) {
+        clear();
+        if (statistics != null) {
+          statistics.recordClear();
+        }
+      }
       return true;
     }
     return false;
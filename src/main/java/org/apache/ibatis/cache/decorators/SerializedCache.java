@@ -15,17 +15,15 @@
  */
 package org.apache.ibatis.cache.decorators;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
-import java.io.Serializable;
 
 import org.apache.ibatis.cache.Cache;
-import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.CacheSerializers;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
 import org.apache.ibatis.io.Resources;
 
 /**
@@ -34,9 +32,29 @@ import org.apache.ibatis.io.Resources;
 public class SerializedCache implements Cache {
 
   private final Cache delegate;
+  private CacheSerializer serializer;
 
   public SerializedCache(Cache delegate) {
+    this(delegate, new JavaCacheSerializer());
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public SerializedCache(Cache delegate, CacheSerializer serializer) {
     this.delegate = delegate;
+    this.serializer = serializer;
+  }
+
+  /**
+   * Sets the serializer from the <code>serializer</code> property of the cache: <code>java</code> (the default),
+   * <code>compact</code>, <code>copy</code> or the name of a {@link CacheSerializer} class.
+   *
+   * @param serializer the serializer name or class name
+   * @since 3.5.4
+   */
+  public void setSerializer(String serializer) {
+    this.serializer = CacheSerializers.forName(serializer);
   }
 
   @Override
@@ -51,17 +69,13 @@ public class SerializedCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
-    if (object == null || object instanceof Serializable) {
-      delegate.putObject(key, serialize((Serializable) object));
-    } else {
-      throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + object);
-    }
+    delegate.putObject(key, serializer.serialize(object));
   }
 
   @Override
   public Object getObject(Object key) {
     Object object = delegate.getObject(key);
-    return object == null ? null : deserialize((byte[]) object);
+    return object == null ? null : serializer.deserialize(object);
   }
 
   @Override
@@ -84,28 +98,6 @@ public class SerializedCache implements Cache {
     return delegate.equals(obj);
   }
 
-  private byte[] serialize(Serializable value) {
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-         ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-      oos.writeObject(value);
-      oos.flush();
-      return bos.toByteArray();
-    } catch (Exception e) {
-      throw new CacheException("Error serializing object.  Cause: " + e, e);
-    }
-  }
-
-  private Serializable deserialize(byte[] value) {
-    Serializable result;
-    try (ByteArrayInputStream bis = new ByteArrayInputStream(value);
-         ObjectInputStream ois = new CustomObjectInputStream(bis)) {
-      result = (Serializable) ois.readObject();
-    } catch (Exception e) {
-      throw new CacheException("Error deserializing object.  Cause: " + e, e);
-    }
-    return result;
-  }
-
   public static class CustomObjectInputStream extends ObjectInputStream {
 
     public CustomObjectInputStream(InputStream in) throws IOException {
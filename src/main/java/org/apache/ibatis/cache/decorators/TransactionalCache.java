@@ -94,6 +94,16 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.clear();
   }
 
+  /**
+   * Returns whether the cache will be cleared on commit, i.e. whether the session has pending changes to it.
+   *
+   * @return true if the cache will be cleared on commit
+   * @since 3.5.4
+   */
+  public boolean isClearOnCommit() {
+    return clearOnCommit;
+  }
+
   public void commit() {
     if (clearOnCommit) {// 若是提交时清除为true，则提交的时候就清除缓存
       delegate.clear();
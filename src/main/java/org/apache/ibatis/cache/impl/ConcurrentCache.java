@@ -0,0 +1,313 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
+
+/**
+ * A thread-safe cache that evicts on its own, meant to replace the default <code>PerpetualCache</code>,
+ * <code>LruCache</code> and <code>SynchronizedCache</code> stack for read-heavy namespaces.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap} and evicted with the CLOCK (second chance) algorithm: a read only
+ * marks the entry as referenced, so reads neither lock nor reorder anything. When the cache grows beyond its size or
+ * weight, the writing thread sweeps the entries in insertion order, removing the first one that was not read since
+ * the previous sweep. Only one thread evicts at a time, other writers do not wait for it, so the bounds may be
+ * exceeded briefly under concurrent writes.
+ * <p>
+ * By default the weight of a cached list is its number of elements, so {@link #setMaximumWeight(long)} bounds the
+ * number of rows held by the cache.
+ *
+ * @since 3.5.4
+ */
+public class ConcurrentCache implements Cache {
+
+  /**
+   * Computes the weight of an entry, see {@link ConcurrentCache#setMaximumWeight(long)}.
+   */
+  @FunctionalInterface
+  public interface Weigher {
+    long weigh(Object key, Object value);
+  }
+
+  private static final Weigher ROW_WEIGHER = (key, value) -> value instanceof Collection ? ((Collection<?>) value).size() : 1;
+
+  private final String id;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  // replaced as a whole on clear(), so that a clear is a single write
+  private volatile Table table = new Table();
+  private int size = 1024;
+  private long maximumWeight;
+  private long timeToLive;
+  private Weigher weigher = ROW_WEIGHER;
+  private CacheStatistics statistics;
+
+  public ConcurrentCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return table.map.size();
+  }
+
+  /**
+   * Sets the maximum number of entries. The default is 1024.
+   *
+   * @param size the maximum number of entries
+   */
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public int getMaximumSize() {
+    return size;
+  }
+
+  /**
+   * Sets the maximum total weight of the entries, 0 (the default) meaning no limit.
+   *
+   * @param maximumWeight the maximum weight
+   */
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public long getWeight() {
+    return table.weight.get();
+  }
+
+  /**
+   * Sets the time in milliseconds after which an entry expires, 0 (the default) meaning never.
+   *
+   * @param timeToLive the time to live in milliseconds
+   */
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setWeigher(Weigher weigher) {
+    this.weigher = weigher == null ? ROW_WEIGHER : weigher;
+  }
+
+  /**
+   * Sets the statistics the evictions are recorded into.
+   *
+   * @param statistics the statistics
+   * @since 3.5.4
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    putObject(key, value, timeToLive);
+  }
+
+  /**
+   * Puts an entry that expires after its own time to live.
+   *
+   * @param key the key
+   * @param value the value
+   * @param timeToLive the time in milliseconds after which the entry expires, 0 meaning never
+   */
+  public void putObject(Object key, Object value, long timeToLive) {
+    Table t = table;
+    long expireTime = timeToLive > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLive) : 0;
+    Node node = new Node(key, value, Math.max(0, weigher.weigh(key, value)), timeToLive > 0, expireTime);
+    Node previous = t.map.put(key, node);
+    t.weight.addAndGet(previous == null ? node.weight : node.weight - previous.weight);
+    t.clock.offer(node);
+    int queued = t.queued.incrementAndGet();
+    if (isOverBounds(t)) {
+      evict(t);
+    } else if (previous != null && queued > 2 * t.map.size() + 16) {
+      purge(t);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Table t = table;
+    Node node = t.map.get(key);
+    if (node == null) {
+      return null;
+    }
+    if (node.isExpired()) {
+      if (t.map.remove(key, node)) {
+        t.weight.addAndGet(-node.weight);
+      }
+      return null;
+    }
+    if (!node.referenced) {
+      // avoid writing to a shared cache line on every read
+      node.referenced = true;
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Table t = table;
+    Node node = t.map.remove(key);
+    if (node == null) {
+      return null;
+    }
+    t.weight.addAndGet(-node.weight);
+    if (t.queued.get() > 2 * t.map.size() + 16) {
+      purge(t);
+    }
+    return node.isExpired() ? null : node.value;
+  }
+
+  @Override
+  public void clear() {
+    table = new Table();
+  }
+
+  private boolean isOverBounds(Table t) {
+    return t.map.size() > size || (maximumWeight > 0 && t.weight.get() > maximumWeight);
+  }
+
+  private void evict(Table t) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      // readers may keep marking entries, so give each entry a second chance only once per eviction
+      int secondChances = t.queued.get();
+      Node node;
+      while (isOverBounds(t) && (node = t.clock.poll()) != null) {
+        t.queued.decrementAndGet();
+        if (t.map.get(node.key) != node) {
+          // replaced or removed
+          continue;
+        }
+        if (node.referenced && !node.isExpired() && secondChances-- > 0) {
+          node.referenced = false;
+          t.clock.offer(node);
+          t.queued.incrementAndGet();
+          continue;
+        }
+        if (t.map.remove(node.key, node)) {
+          t.weight.addAndGet(-node.weight);
+          if (statistics != null) {
+            statistics.recordEviction();
+          }
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void purge(Table t) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      int removed = 0;
+      for (Iterator<Node> it = t.clock.iterator(); it.hasNext();) {
+        Node node = it.next();
+        if (t.map.get(node.key) != node) {
+          it.remove();
+          removed++;
+        }
+      }
+      t.queued.addAndGet(-removed);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Table {
+    private final ConcurrentHashMap<Object, Node> map = new ConcurrentHashMap<>();
+    // entries in insertion order, plus the ones replaced or removed since the last sweep
+    private final ConcurrentLinkedQueue<Node> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+  }
+
+  private static final class Node {
+    private final Object key;
+    private final Object value;
+    private final long weight;
+    private final boolean expiring;
+    private final long expireTime;
+    private volatile boolean referenced;
+
+    Node(Object key, Object value, long weight, boolean expiring, long expireTime) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.expiring = expiring;
+      this.expireTime = expireTime;
+    }
+
+    boolean isExpired() {
+      return expiring && System.nanoTime() - expireTime >= 0;
+    }
+  }
+
+}
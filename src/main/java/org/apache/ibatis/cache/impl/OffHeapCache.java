@@ -0,0 +1,325 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.CacheSerializers;
+import org.apache.ibatis.cache.serializer.CompactCacheSerializer;
+
+/**
+ * A cache that keeps the serialized values outside of the Java heap, for large read-mostly caches such as reference
+ * data, so that they do not add to the old generation and to the garbage collection pauses.
+ * <p>
+ * Values are serialized, by default with {@link CompactCacheSerializer}, and appended to direct {@link ByteBuffer}
+ * slabs; only the keys and the location of the values stay on the heap. When all slabs are full, the oldest slab is
+ * emptied and reused, evicting all the values it holds, so the memory used is bounded by
+ * {@link #setMaximumBytes(long)}. Values larger than a slab are not cached. Replaced and removed values keep their
+ * room until their slab is reused.
+ * <p>
+ * Each read returns a new copy of the value. Reads take no lock, writes are serialized while they copy the bytes into
+ * a slab. The direct memory is only released when the cache is garbage collected, so it must fit within
+ * <code>-XX:MaxDirectMemorySize</code>.
+ *
+ * @since 3.5.4
+ */
+public class OffHeapCache implements Cache {
+
+  private static final int HEADER_SIZE = 4;
+
+  private final String id;
+  private final Map<Object, Location> index = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final List<Slab> slabs = new ArrayList<>();
+  private CacheSerializer serializer = new CompactCacheSerializer();
+  private long maximumBytes = 64L * 1024 * 1024;
+  private int slabSize = 4 * 1024 * 1024;
+  private CacheStatistics statistics;
+  // guarded by writeLock
+  private int currentSlab = -1;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return index.size();
+  }
+
+  /**
+   * Sets the maximum number of bytes held outside of the heap. The default is 64 MB.
+   *
+   * @param maximumBytes the maximum number of bytes
+   */
+  public void setMaximumBytes(long maximumBytes) {
+    this.maximumBytes = maximumBytes;
+  }
+
+  public long getMaximumBytes() {
+    return maximumBytes;
+  }
+
+  /**
+   * Sets the size of the buffers the memory is allocated and evicted by. The default is 4 MB.
+   *
+   * @param slabSize the size of a slab in bytes
+   */
+  public void setSlabSize(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * Sets the serializer: <code>java</code>, <code>compact</code> (the default) or the name of a
+   * {@link CacheSerializer} class that serializes to a byte array.
+   *
+   * @param serializer the serializer name or class name
+   */
+  public void setSerializer(String serializer) {
+    this.serializer = CacheSerializers.forName(serializer);
+  }
+
+  /**
+   * Sets the statistics the evictions are recorded into.
+   *
+   * @param statistics the statistics
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Gets the number of bytes allocated outside of the heap.
+   *
+   * @return the number of bytes
+   */
+  public long getAllocatedBytes() {
+    writeLock.lock();
+    try {
+      return (long) slabs.size() * slabSize;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    // values already serialized by SerializedCache are stored as they are
+    boolean raw = value instanceof byte[];
+    byte[] data = raw ? (byte[]) value : toBytes(serializer.serialize(value));
+    int length = HEADER_SIZE + data.length;
+    if (length > slabSize || slabSize > maximumBytes) {
+      index.remove(key);
+      return;
+    }
+    writeLock.lock();
+    try {
+      Slab slab = allocate(length);
+      int offset = slab.position;
+      ByteBuffer buffer = slab.buffer.duplicate();
+      buffer.position(offset);
+      buffer.putInt(data.length);
+      buffer.put(data);
+      slab.position += length;
+      slab.keys.add(key);
+      index.put(key, new Location(slab, slab.generation, offset, data.length, raw));
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Location location = index.get(key);
+    if (location == null) {
+      return null;
+    }
+    byte[] data = read(location);
+    if (data == null) {
+      // the slab was reused in the meantime
+      index.remove(key, location);
+      return null;
+    }
+    return location.raw ? data : serializer.deserialize(data);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Location location = index.remove(key);
+    if (location == null) {
+      return null;
+    }
+    byte[] data = read(location);
+    return data == null || location.raw ? data : serializer.deserialize(data);
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      for (Slab slab : slabs) {
+        slab.reset();
+      }
+      index.clear();
+      currentSlab = slabs.isEmpty() ? -1 : 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private byte[] toBytes(Object data) {
+    if (!(data instanceof byte[])) {
+      throw new CacheException("The serializer of an off-heap cache must serialize to a byte array, but "
+          + serializer.getClass().getName() + " returned " + (data == null ? null : data.getClass().getName()) + ".");
+    }
+    return (byte[]) data;
+  }
+
+  private byte[] read(Location location) {
+    Slab slab = location.slab;
+    long stamp = slab.lock.tryOptimisticRead();
+    if (stamp == 0 || slab.generation != location.generation) {
+      return null;
+    }
+    byte[] data = new byte[location.length];
+    ByteBuffer buffer = slab.buffer.duplicate();
+    buffer.position(location.offset + HEADER_SIZE);
+    buffer.get(data);
+    return slab.lock.validate(stamp) ? data : null;
+  }
+
+  // must be called holding writeLock
+  private Slab allocate(int length) {
+    if (currentSlab >= 0 && slabs.get(currentSlab).remaining() >= length) {
+      return slabs.get(currentSlab);
+    }
+    if (slabs.size() < maximumBytes / slabSize) {
+      slabs.add(new Slab(ByteBuffer.allocateDirect(slabSize)));
+      currentSlab = slabs.size() - 1;
+      return slabs.get(currentSlab);
+    }
+    // all slabs are allocated, reuse the oldest one
+    currentSlab = (currentSlab + 1) % slabs.size();
+    Slab slab = slabs.get(currentSlab);
+    if (slab.position > 0) {
+      evict(slab);
+    }
+    return slab;
+  }
+
+  // only looks up the keys written to the slab, the ones replaced or removed since are skipped
+  private void evict(Slab slab) {
+    int generation = slab.generation;
+    for (Object key : slab.keys) {
+      Location location = index.get(key);
+      if (location != null && location.slab == slab && location.generation == generation
+          && index.remove(key, location) && statistics != null) {
+        statistics.recordEviction();
+      }
+    }
+    slab.reset();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Slab {
+    private final ByteBuffer buffer;
+    // readers copy optimistically and check that the slab was not reset meanwhile
+    private final StampedLock lock = new StampedLock();
+    private volatile int generation;
+    // guarded by writeLock
+    private int position;
+    // the keys written since the last reset, guarded by writeLock
+    private final List<Object> keys = new ArrayList<>();
+
+    Slab(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    int remaining() {
+      return buffer.capacity() - position;
+    }
+
+    void reset() {
+      long stamp = lock.writeLock();
+      try {
+        generation++;
+        position = 0;
+        keys.clear();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  private static final class Location {
+    private final Slab slab;
+    private final int generation;
+    private final int offset;
+    private final int length;
+    private final boolean raw;
+
+    Location(Slab slab, int generation, int offset, int length, boolean raw) {
+      this.slab = slab;
+      this.generation = generation;
+      this.offset = offset;
+      this.length = length;
+      this.raw = raw;
+    }
+  }
+
+}
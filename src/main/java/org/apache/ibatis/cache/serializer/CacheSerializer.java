@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+/**
+ * Copies the objects of a read-write cache, so that callers never share an instance held by the cache.
+ * <p>
+ * Implementations must be thread-safe and have a public no-argument constructor to be configured with the
+ * <code>serializer</code> property of a cache.
+ *
+ * @since 3.5.4
+ * @see org.apache.ibatis.cache.decorators.SerializedCache
+ */
+public interface CacheSerializer {
+
+  /**
+   * Converts an object put in the cache to the form the cache holds.
+   *
+   * @param value the object, may be null
+   * @return the form held by the cache
+   */
+  Object serialize(Object value);
+
+  /**
+   * Converts the form held by the cache to a new copy of the original object.
+   *
+   * @param data what {@link #serialize(Object)} returned
+   * @return a copy the caller may modify
+   */
+  Object deserialize(Object data);
+
+}
@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Resolves the <code>serializer</code> property of a cache.
+ *
+ * @since 3.5.4
+ */
+public final class CacheSerializers {
+
+  private CacheSerializers() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Creates a serializer by name.
+   *
+   * @param name <code>java</code>, <code>compact</code>, <code>copy</code> or the name of a {@link CacheSerializer}
+   *          class
+   * @return a new serializer
+   */
+  public static CacheSerializer forName(String name) {
+    if ("java".equalsIgnoreCase(name)) {
+      return new JavaCacheSerializer();
+    } else if ("compact".equalsIgnoreCase(name)) {
+      return new CompactCacheSerializer();
+    } else if ("copy".equalsIgnoreCase(name)) {
+      return new DeepCopyCacheSerializer();
+    }
+    try {
+      return (CacheSerializer) Resources.classForName(name).getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache serializer " + name + ".  Cause: " + e, e);
+    }
+  }
+
+}
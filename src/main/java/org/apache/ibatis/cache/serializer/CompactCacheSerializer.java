@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Copies objects with Java serialization, but writes a class descriptor as a number instead of the class name, the
+ * field names and the field types.
+ * <p>
+ * The numbers are assigned by this instance, so the bytes can only be read by the serializer that wrote them, which
+ * is the case of a cache. Each thread also reuses a small output buffer, shared by all the serializers. For a list of a
+ * few small objects this reduces the size of the copy and the time to make it several times.
+ *
+ * @since 3.5.4
+ */
+public class CompactCacheSerializer implements CacheSerializer {
+
+  // larger buffers are not kept, so that the buffers held stay small however many threads use the caches
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  // shared by all the instances, so that the memory held does not grow with the number of caches
+  private static final ThreadLocal<ReusableByteArrayOutputStream> BUFFERS = ThreadLocal.withInitial(ReusableByteArrayOutputStream::new);
+
+  private final Map<Class<?>, Integer> descriptorIds = new ConcurrentHashMap<>();
+  private final List<ObjectStreamClass> descriptors = new CopyOnWriteArrayList<>();
+
+  @Override
+  public Object serialize(Object value) {
+    if (value != null && !(value instanceof Serializable)) {
+      throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + value);
+    }
+    ReusableByteArrayOutputStream buffer = BUFFERS.get();
+    buffer.reset();
+    try (ObjectOutputStream oos = new CompactObjectOutputStream(buffer)) {
+      oos.writeObject(value);
+      oos.flush();
+      return buffer.toByteArray();
+    } catch (Exception e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    } finally {
+      if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+        BUFFERS.remove();
+      }
+    }
+  }
+
+  @Override
+  public Object deserialize(Object data) {
+    try (ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream((byte[]) data))) {
+      return ois.readObject();
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private int idOf(ObjectStreamClass descriptor) {
+    Class<?> type = descriptor.forClass();
+    Integer id = descriptorIds.get(type);
+    if (id == null) {
+      synchronized (descriptors) {
+        id = descriptorIds.get(type);
+        if (id == null) {
+          descriptors.add(descriptor);
+          id = descriptors.size() - 1;
+          descriptorIds.put(type, id);
+        }
+      }
+    }
+    return id;
+  }
+
+  private class CompactObjectOutputStream extends ObjectOutputStream {
+
+    CompactObjectOutputStream(OutputStream out) throws IOException {
+      super(out);
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+      writeInt(idOf(desc));
+    }
+
+  }
+
+  private class CompactObjectInputStream extends ObjectInputStream {
+
+    CompactObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException {
+      int id = readInt();
+      if (id < 0 || id >= descriptors.size()) {
+        throw new IOException("Unknown class descriptor " + id + ".");
+      }
+      return descriptors.get(id);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      Class<?> type = desc.forClass();
+      return type != null ? type : super.resolveClass(desc);
+    }
+
+  }
+
+  private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    ReusableByteArrayOutputStream() {
+      super(1024);
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+
+  }
+
+}
@@ -0,0 +1,202 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+
+/**
+ * Copies objects field by field, so that the results need not be {@link Serializable}.
+ * <p>
+ * The cache holds a copy of the object put and each read returns a new copy. Immutable values such as strings,
+ * numbers and <code>java.time</code> values are shared. Arrays and the plain JDK collections and maps, e.g.
+ * {@link ArrayList} and {@link HashMap}, are copied element by element and other objects field by field after
+ * calling their no-argument constructor. All other JDK classes, lazy loading proxies and objects without a
+ * no-argument constructor are copied with Java serialization if they are {@link Serializable}, as their fields may
+ * not be accessible or may not hold their whole state. A field that cannot be copied fails the copy, except a final
+ * field that cannot be written, which keeps the value set by the constructor.
+ *
+ * @since 3.5.4
+ */
+public class DeepCopyCacheSerializer implements CacheSerializer {
+
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class, Class.class));
+
+  private static final Set<Class<?>> COLLECTION_TYPES = new HashSet<>(Arrays.asList(
+      ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class, HashMap.class));
+
+  private final ObjectFactory objectFactory = new DefaultObjectFactory();
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private final JavaCacheSerializer fallback = new JavaCacheSerializer();
+
+  @Override
+  public Object serialize(Object value) {
+    return copy(value);
+  }
+
+  @Override
+  public Object deserialize(Object data) {
+    return copy(data);
+  }
+
+  /**
+   * Makes a deep copy of an object graph, preserving shared references and cycles.
+   *
+   * @param value the object
+   * @return the copy
+   */
+  public Object copy(Object value) {
+    return copy(value, new IdentityHashMap<>());
+  }
+
+  private Object copy(Object value, Map<Object, Object> copies) {
+    if (value == null || isImmutable(value)) {
+      return value;
+    }
+    Object copy = copies.get(value);
+    if (copy != null) {
+      return copy;
+    }
+    Class<?> type = value.getClass();
+    if (type.isArray()) {
+      return copyArray(value, copies);
+    }
+    if (value instanceof Date) {
+      copy = ((Date) value).clone();
+      copies.put(value, copy);
+      return copy;
+    }
+    if (!isCopyable(value)) {
+      if (!(value instanceof Serializable)) {
+        throw new CacheException("Could not make a copy of " + type.getName()
+            + ", it cannot be copied field by field and is not serializable.");
+      }
+      copy = fallback.deserialize(fallback.serialize(value));
+      copies.put(value, copy);
+      return copy;
+    }
+    copy = objectFactory.create(type);
+    copies.put(value, copy);
+    if (value instanceof Collection) {
+      @SuppressWarnings("unchecked")
+      Collection<Object> target = (Collection<Object>) copy;
+      for (Object element : (Collection<?>) value) {
+        target.add(copy(element, copies));
+      }
+    } else if (value instanceof Map) {
+      @SuppressWarnings("unchecked")
+      Map<Object, Object> target = (Map<Object, Object>) copy;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        target.put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+      }
+    } else {
+      copyFields(type, value, copy, copies);
+    }
+    return copy;
+  }
+
+  private void copyFields(Class<?> type, Object value, Object copy, Map<Object, Object> copies) {
+    for (Class<?> parent = type; parent != null; parent = parent.getSuperclass()) {
+      for (Field field : parent.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        try {
+          if (!field.isAccessible() && Reflector.canControlMemberAccessible()) {
+            field.setAccessible(true);
+          }
+          field.set(copy, copy(field.get(value), copies));
+        } catch (IllegalAccessException e) {
+          if (!Modifier.isFinal(field.getModifiers())) {
+            throw fieldCopyFailure(type, field, e);
+          }
+        } catch (CacheException e) {
+          throw e;
+        } catch (RuntimeException e) {
+          throw fieldCopyFailure(type, field, e);
+        }
+      }
+    }
+  }
+
+  private CacheException fieldCopyFailure(Class<?> type, Field field, Exception e) {
+    return new CacheException("Could not copy the field " + field.getName() + " of " + type.getName() + ". Cause: " + e, e);
+  }
+
+  private Object copyArray(Object array, Map<Object, Object> copies) {
+    int length = Array.getLength(array);
+    Class<?> componentType = array.getClass().getComponentType();
+    Object copy = Array.newInstance(componentType, length);
+    copies.put(array, copy);
+    if (componentType.isPrimitive()) {
+      System.arraycopy(array, 0, copy, 0, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        Array.set(copy, i, copy(Array.get(array, i), copies));
+      }
+    }
+    return copy;
+  }
+
+  private boolean isImmutable(Object value) {
+    return IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum || value instanceof TemporalAccessor;
+  }
+
+  private boolean isCopyable(Object value) {
+    // a proxy would lose its loader and a JDK class may hide its state, e.g. the comparator of a sorted collection
+    Class<?> type = value.getClass();
+    if (value instanceof WriteReplaceInterface) {
+      return false;
+    }
+    if (isJdkType(type)) {
+      return COLLECTION_TYPES.contains(type);
+    }
+    return reflectorFactory.findForClass(type).hasDefaultConstructor();
+  }
+
+  private boolean isJdkType(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.");
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -43,4 +47,21 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
    * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
    */
   int getCurrentIndex();
+
+  /**
+   * Returns a sequential stream over the items of this cursor. The cursor is closed when the stream is closed, so the
+   * stream should be used in a try-with-resources statement when it may not be fully consumed.
+   *
+   * @return a stream over the items of this cursor
+   * @since 3.5.4
+   */
+  default Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false).onClose(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
 }
@@ -19,6 +19,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
@@ -103,6 +106,23 @@ public class DefaultCursor<T> implements Cursor<T> {
     return cursorIterator;
   }
 
+  @Override
+  public Spliterator<T> spliterator() {
+    final Iterator<T> iterator = iterator();
+    // the number of items is not known before they are read, but does not exceed the limit of the row bounds
+    long estimatedSize = rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT ? Long.MAX_VALUE : rowBounds.getLimit();
+    return new Spliterators.AbstractSpliterator<T>(estimatedSize, Spliterator.ORDERED) {
+      @Override
+      public boolean tryAdvance(Consumer<? super T> action) {
+        if (!iterator.hasNext()) {
+          return false;
+        }
+        action.accept(iterator.next());
+        return true;
+      }
+    };
+  }
+
   @Override
   public void close() {
     if (isClosed()) {
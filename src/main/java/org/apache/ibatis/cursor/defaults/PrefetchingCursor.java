@@ -0,0 +1,246 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.ExecutorException;
+
+/**
+ * A cursor that reads the items of another cursor ahead on a background thread into a bounded queue, so that the
+ * database is read while the items are processed.
+ * <p>
+ * The background thread reads the result set of the other cursor, so the session must not run other statements until
+ * this cursor is consumed or closed. Closing this cursor waits until the background thread has closed the other one.
+ * This implementation is not thread safe, except for {@link #close()}.
+ * </p>
+ *
+ * @since 3.5.4
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final Item<Object> END = new Item<>(null, -1, null);
+
+  private final Cursor<T> delegate;
+  private final Executor executor;
+  private final BlockingQueue<Item<T>> queue;
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private final PrefetchingIterator iterator = new PrefetchingIterator();
+
+  private boolean iteratorRetrieved;
+  private volatile boolean started;
+  private volatile boolean closed;
+  private boolean consumed;
+  private int currentIndex = -1;
+
+  /**
+   * @param delegate the cursor to read ahead
+   * @param prefetchSize the maximum number of items read ahead
+   * @param executor the executor that runs the background thread for the life of the cursor
+   */
+  public PrefetchingCursor(Cursor<T> delegate, int prefetchSize, Executor executor) {
+    if (prefetchSize < 1) {
+      throw new IllegalArgumentException("The prefetch size must be positive: " + prefetchSize);
+    }
+    this.delegate = delegate;
+    this.executor = executor;
+    this.queue = new ArrayBlockingQueue<>(prefetchSize);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return started && !closed && !consumed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return currentIndex;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    return iterator;
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!started) {
+      closeDelegate();
+      return;
+    }
+    // makes room for a pending put, after which the background thread sees the cursor closed
+    queue.clear();
+    try {
+      finished.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void start() {
+    started = true;
+    try {
+      executor.execute(this::prefetch);
+    } catch (RuntimeException e) {
+      started = false;
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void prefetch() {
+    // each put follows a check of closed, so the queue cleared by close() always has room for it
+    try {
+      Iterator<T> delegateIterator = delegate.iterator();
+      while (!closed && delegateIterator.hasNext()) {
+        T value = delegateIterator.next();
+        queue.put(new Item<>(value, delegate.getCurrentIndex(), null));
+      }
+      if (!closed) {
+        queue.put((Item<T>) END);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      if (!closed) {
+        try {
+          queue.put(new Item<>(null, -1, t));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } finally {
+      closeDelegate();
+      finished.countDown();
+    }
+  }
+
+  private void closeDelegate() {
+    try {
+      delegate.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  private static class Item<T> {
+    private final T value;
+    private final int index;
+    private final Throwable failure;
+
+    Item(T value, int index, Throwable failure) {
+      this.value = value;
+      this.index = index;
+      this.failure = failure;
+    }
+  }
+
+  private class PrefetchingIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next item to be returned.
+     */
+    private Item<T> next;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !consumed && !closed) {
+        if (!started) {
+          start();
+        }
+        next = take();
+      }
+      return next != null;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Item<T> item = next;
+      next = null;
+      currentIndex = item.index;
+      return item.value;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+
+    private Item<T> take() {
+      Item<T> item;
+      try {
+        while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+          if (finished.getCount() == 0 && queue.isEmpty()) {
+            closed = true;
+            throw new ExecutorException("The background thread of the cursor was interrupted.");
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new ExecutorException("Interrupted while waiting for the next item of the cursor.", e);
+      }
+      if (item == END) {
+        consumed = true;
+        return null;
+      }
+      if (item.failure != null) {
+        closed = true;
+        if (item.failure instanceof RuntimeException) {
+          throw (RuntimeException) item.failure;
+        } else if (item.failure instanceof Error) {
+          throw (Error) item.failure;
+        }
+        throw new ExecutorException("Error reading the cursor. Cause: " + item.failure, item.failure);
+      }
+      return item;
+    }
+  }
+}
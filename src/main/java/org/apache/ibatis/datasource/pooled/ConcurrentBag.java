@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lock-free collection of {@link PoolEntry} used by {@link ConcurrentPooledDataSource}.
+ * <p>
+ * A borrowing thread first looks at the entries it returned most recently, then scans the shared list, and only then
+ * waits for a returned entry. Returned entries are handed directly to the longest waiting thread, if it is polling.
+ */
+class ConcurrentBag {
+
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+  // how long a waiter polls before it scans the shared list again for an entry that was not handed off
+  private static final long RESCAN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  // handed to a waiter when an entry is removed, so that it retries creating a connection
+  private static final PoolEntry CAPACITY_FREED = new PoolEntry(null, PoolEntry.STATE_REMOVED);
+
+  private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<List<WeakReference<PoolEntry>>> threadList = ThreadLocal.withInitial(ArrayList::new);
+  // fair mode: a returned entry goes to the longest waiting thread only
+  private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  // entries in the bag plus the ones still being created
+  private final AtomicInteger reserved = new AtomicInteger();
+  private final AtomicInteger idle = new AtomicInteger();
+
+  /**
+   * Tries to borrow an idle entry without waiting.
+   *
+   * @return an entry in the in-use state, or null if none is idle
+   */
+  PoolEntry poll() {
+    List<WeakReference<PoolEntry>> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      PoolEntry entry = list.remove(i).get();
+      if (entry != null && borrow(entry)) {
+        return entry;
+      }
+    }
+    return scan();
+  }
+
+  /**
+   * Waits for an entry to be returned to the bag. A returning thread only hands its entry to a thread that is already
+   * polling, so the wait is short: the caller must scan the bag again, or check whether it can create an entry, when
+   * nothing was handed to it.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return an entry in the in-use state, or null if none was handed off in time
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  PoolEntry await(long timeout) throws InterruptedException {
+    waiters.incrementAndGet();
+    try {
+      // an entry may have been returned since the last poll, before this thread was counted as a waiter
+      PoolEntry entry = scan();
+      if (entry != null) {
+        return entry;
+      }
+      long wait = Math.min(TimeUnit.MILLISECONDS.toNanos(timeout), RESCAN_INTERVAL_NANOS);
+      entry = handoffQueue.poll(wait, TimeUnit.NANOSECONDS);
+      return entry != null && borrow(entry) ? entry : null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Reserves room for a new entry, so that concurrent callers cannot create more than the maximum.
+   *
+   * @param maximum the maximum number of entries
+   * @return true if the caller must now either {@link #add(PoolEntry)} an entry or {@link #cancelReservation()}
+   */
+  boolean reserve(int maximum) {
+    int current;
+    do {
+      current = reserved.get();
+      if (current >= maximum) {
+        return false;
+      }
+    } while (!reserved.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  void cancelReservation() {
+    reserved.decrementAndGet();
+    handoff(CAPACITY_FREED);
+  }
+
+  /**
+   * Borrows an entry the caller already knows about, e.g. to check it while no other thread can use it.
+   *
+   * @param entry the entry
+   * @return true if the entry was idle and is now in use
+   */
+  boolean borrow(PoolEntry entry) {
+    if (entry.compareAndSetState(PoolEntry.STATE_IDLE, PoolEntry.STATE_IN_USE)) {
+      idle.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Adds a newly created entry for which room was reserved. The entry must already be in its initial state.
+   *
+   * @param entry the entry
+   */
+  void add(PoolEntry entry) {
+    boolean isIdle = entry.getState() == PoolEntry.STATE_IDLE;
+    if (isIdle) {
+      idle.incrementAndGet();
+    }
+    sharedList.add(entry);
+    if (isIdle) {
+      handoff(entry);
+    }
+  }
+
+  /**
+   * Returns a borrowed entry to the bag, handing it to a waiting thread if there is one.
+   *
+   * @param entry the entry
+   */
+  void requite(PoolEntry entry) {
+    if (!release(entry)) {
+      List<WeakReference<PoolEntry>> list = threadList.get();
+      if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+        list.add(new WeakReference<>(entry));
+      }
+    }
+  }
+
+  /**
+   * Returns a borrowed entry to the bag without remembering it for the current thread.
+   *
+   * @param entry the entry
+   * @return true if the entry was handed to a waiting thread or had been removed meanwhile
+   */
+  boolean release(PoolEntry entry) {
+    if (!entry.compareAndSetState(PoolEntry.STATE_IN_USE, PoolEntry.STATE_IDLE)) {
+      // removed while it was being returned
+      return true;
+    }
+    idle.incrementAndGet();
+    return handoff(entry);
+  }
+
+  /**
+   * Removes an entry from the bag for good.
+   *
+   * @param entry the entry
+   * @return true if the entry was still part of the bag
+   */
+  boolean remove(PoolEntry entry) {
+    if (entry.getAndSetState(PoolEntry.STATE_REMOVED) == PoolEntry.STATE_IDLE) {
+      idle.decrementAndGet();
+    }
+    if (!sharedList.remove(entry)) {
+      return false;
+    }
+    reserved.decrementAndGet();
+    handoff(CAPACITY_FREED);
+    return true;
+  }
+
+  /**
+   * Gets a read-only snapshot-iterable view of all entries, whatever their state.
+   *
+   * @return the entries
+   */
+  List<PoolEntry> values() {
+    return Collections.unmodifiableList(sharedList);
+  }
+
+  int size() {
+    return sharedList.size();
+  }
+
+  int getIdleCount() {
+    return idle.get();
+  }
+
+  int getInUseCount() {
+    return Math.max(0, sharedList.size() - idle.get());
+  }
+
+  int getWaitingThreadCount() {
+    return waiters.get();
+  }
+
+  private PoolEntry scan() {
+    for (PoolEntry entry : sharedList) {
+      if (borrow(entry)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private boolean handoff(PoolEntry entry) {
+    if (waiters.get() == 0) {
+      return false;
+    }
+    if (entry != CAPACITY_FREED && entry.getState() != PoolEntry.STATE_IDLE) {
+      // already borrowed by a scanning thread
+      return true;
+    }
+    // never blocks: a waiter that is not polling right now finds the entry in the shared list when it scans again
+    return handoffQueue.offer(entry);
+  }
+
+}
@@ -0,0 +1,447 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A thread-safe connection pool that does not serialize checkouts and returns on a single monitor.
+ * <p>
+ * Connections are kept in a {@link ConcurrentBag}: a thread first reuses the connections it returned most recently,
+ * and a returned connection is handed directly to the thread that has been waiting the longest. Unlike
+ * {@link PooledDataSource}, a thread that cannot get a connection within {@link #getPoolTimeToWait()} milliseconds
+ * fails with an {@link SQLException} instead of waiting again.
+ *
+ * @since 3.5.4
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+  private final ConcurrentBag bag = new ConcurrentBag();
+
+  public ConcurrentPooledDataSource() {
+  }
+
+  public ConcurrentPooledDataSource(UnpooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+    super(driverClassLoader, driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+    super(driverClassLoader, driver, url, driverProperties);
+  }
+
+  @Override
+  protected PoolState newPoolState() {
+    return new ConcurrentPoolState(this);
+  }
+
+  private ConcurrentPoolState state() {
+    return (ConcurrentPoolState) getPoolState();
+  }
+
+  /**
+   * Closes all active and idle connections in the pool.
+   */
+  @Override
+  public void forceCloseAll() {
+    stopHousekeeper();
+    expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+    for (PoolEntry entry : bag.values()) {
+      PooledConnection owner = entry.getOwner();
+      if (owner != null && entry.releaseOwner(owner)) {
+        owner.invalidate();
+      }
+      discard(entry);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    PoolEntry entry = conn.getPoolEntry();
+    if (entry == null || !entry.releaseOwner(conn)) {
+      // already returned, claimed as overdue or closed by forceCloseAll
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state().badConnections.increment();
+      return;
+    }
+    entry.setLastUsedTimestamp(System.currentTimeMillis());
+    entry.setLastValidatedTimestamp(conn.getLastValidatedTimestamp());
+    if (!conn.isValid()) {
+      conn.invalidate();
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state().badConnections.increment();
+      discard(entry);
+      return;
+    }
+    state().checkoutTime.add(conn.getCheckoutTime());
+    conn.invalidate();
+    recordReturn(conn);
+    try {
+      if (!entry.getRealConnection().getAutoCommit()) {
+        entry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      discard(entry);
+      throw e;
+    }
+    if (conn.getConnectionTypeCode() == expectedConnectionTypeCode
+        && bag.getIdleCount() < poolMaximumIdleConnections) {
+      bag.requite(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Returned connection " + conn.getRealHashCode() + " to pool.");
+      }
+    } else {
+      discard(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Closed connection " + conn.getRealHashCode() + ".");
+      }
+    }
+  }
+
+  @Override
+  protected PooledConnection popConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    long requestStartNanos = System.nanoTime();
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      PoolEntry entry = bag.poll();
+      if (entry == null) {
+        entry = createEntry();
+      }
+      if (entry == null) {
+        entry = claimOverdueEntry();
+      }
+      if (entry == null) {
+        long remaining = t + poolTimeToWait - System.currentTimeMillis();
+        if (remaining <= 0) {
+          if (log.isDebugEnabled()) {
+            log.debug("ConcurrentPooledDataSource: Timed out waiting " + poolTimeToWait + " milliseconds for connection.");
+          }
+          recordRequestTimeout(requestStartNanos);
+          throw new SQLException("ConcurrentPooledDataSource: Timed out waiting " + poolTimeToWait + " milliseconds for connection.");
+        }
+        if (!countedWait) {
+          state().waits.increment();
+          countedWait = true;
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + remaining + " milliseconds for connection.");
+          }
+        }
+        long wt = System.currentTimeMillis();
+        try {
+          entry = bag.await(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("ConcurrentPooledDataSource: Interrupted while waiting for connection.", e);
+        } finally {
+          state().waitTime.add(System.currentTimeMillis() - wt);
+        }
+        if (entry == null) {
+          continue;
+        }
+      }
+
+      PooledConnection conn = checkout(entry, username, password);
+      if (conn != null) {
+        state().requests.increment();
+        state().requestTime.add(System.currentTimeMillis() - t);
+        recordCheckout(conn, requestStartNanos);
+        return conn;
+      }
+      state().badConnections.increment();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+  }
+
+  @Override
+  protected void housekeep() {
+    int idleCount = bag.getIdleCount();
+    for (PoolEntry entry : bag.values()) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      long now = System.currentTimeMillis();
+      boolean retired = isRetired(now - entry.getCreatedTimestamp(), now - entry.getLastUsedTimestamp(), idleCount);
+      if (!retired && now - entry.getLastValidatedTimestamp() <= poolPingConnectionsNotUsedFor) {
+        continue;
+      }
+      // borrow the entry so that no thread can check it out while it is checked
+      if (!bag.borrow(entry)) {
+        continue;
+      }
+      if (!retired && validateConnection(entry.getRealConnection())) {
+        entry.setLastValidatedTimestamp(System.currentTimeMillis());
+        bag.release(entry);
+        continue;
+      }
+      if (!retired) {
+        state().badConnections.increment();
+      }
+      idleCount--;
+      discard(entry);
+      if (log.isDebugEnabled()) {
+        log.debug((retired ? "Retired" : "Discarded") + " idle connection " + entry.getRealConnection().hashCode() + ".");
+      }
+    }
+    while (!Thread.currentThread().isInterrupted()
+        && bag.getIdleCount() < getMinimumIdle()
+        && bag.reserve(poolMaximumActiveConnections)) {
+      PoolEntry entry;
+      try {
+        entry = new PoolEntry(dataSource.getConnection(), PoolEntry.STATE_IDLE);
+        entry.setStatementCache(newStatementCache());
+      } catch (SQLException | RuntimeException e) {
+        bag.cancelReservation();
+        log.warn("Could not create a connection to keep the pool warm: " + e.getMessage());
+        return;
+      }
+      bag.add(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection " + entry.getRealConnection().hashCode() + ".");
+      }
+    }
+  }
+
+  @Override
+  protected List<PooledConnection> getActiveConnections() {
+    List<PooledConnection> connections = new ArrayList<>();
+    for (PoolEntry entry : bag.values()) {
+      PooledConnection owner = entry.getOwner();
+      if (owner != null) {
+        connections.add(owner);
+      }
+    }
+    return connections;
+  }
+
+  private PoolEntry createEntry() throws SQLException {
+    if (!bag.reserve(poolMaximumActiveConnections)) {
+      return null;
+    }
+    PoolEntry entry;
+    try {
+      entry = new PoolEntry(dataSource.getConnection(), PoolEntry.STATE_IN_USE);
+      entry.setStatementCache(newStatementCache());
+    } catch (SQLException | RuntimeException e) {
+      bag.cancelReservation();
+      throw e;
+    }
+    bag.add(entry);
+    if (log.isDebugEnabled()) {
+      log.debug("Created connection " + entry.getRealConnection().hashCode() + ".");
+    }
+    return entry;
+  }
+
+  private PoolEntry claimOverdueEntry() {
+    PooledConnection oldestActiveConnection = null;
+    for (PoolEntry entry : bag.values()) {
+      PooledConnection owner = entry.getOwner();
+      if (owner != null && (oldestActiveConnection == null
+          || owner.getCheckoutTimestamp() < oldestActiveConnection.getCheckoutTimestamp())) {
+        oldestActiveConnection = owner;
+      }
+    }
+    if (oldestActiveConnection == null) {
+      return null;
+    }
+    long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+    PoolEntry entry = oldestActiveConnection.getPoolEntry();
+    if (longestCheckoutTime <= poolMaximumCheckoutTime || !entry.releaseOwner(oldestActiveConnection)) {
+      return null;
+    }
+    state().claimedOverdueConnections.increment();
+    state().overdueCheckoutTime.add(longestCheckoutTime);
+    state().checkoutTime.add(longestCheckoutTime);
+    oldestActiveConnection.invalidate();
+    try {
+      if (!entry.getRealConnection().getAutoCommit()) {
+        entry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      // the connection is validated again before it is handed out
+      log.debug("Bad connection. Could not roll back");
+    }
+    logClaimedOverdueConnection(oldestActiveConnection, longestCheckoutTime);
+    return entry;
+  }
+
+  private PooledConnection checkout(PoolEntry entry, String username, String password) throws SQLException {
+    PooledConnection conn = new PooledConnection(entry.getRealConnection(), this);
+    conn.setPoolEntry(entry);
+    conn.setStatementCache(entry.getStatementCache());
+    conn.setCreatedTimestamp(entry.getCreatedTimestamp());
+    conn.setLastUsedTimestamp(entry.getLastUsedTimestamp());
+    conn.setLastValidatedTimestamp(entry.getLastValidatedTimestamp());
+    if (!conn.isValid()) {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      discard(entry);
+      return null;
+    }
+    try {
+      if (!conn.getRealConnection().getAutoCommit()) {
+        conn.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      discard(entry);
+      throw e;
+    }
+    long now = System.currentTimeMillis();
+    conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+    conn.setCheckoutTimestamp(now);
+    conn.setLastUsedTimestamp(now);
+    entry.setLastUsedTimestamp(now);
+    entry.setOwner(conn);
+    if (log.isDebugEnabled()) {
+      log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+    }
+    return conn;
+  }
+
+  private void discard(PoolEntry entry) {
+    if (!bag.remove(entry)) {
+      return;
+    }
+    try {
+      Connection realConn = entry.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  /**
+   * The state of a pool updated without a lock: the counters inherited from {@link PoolState} are not used.
+   */
+  private class ConcurrentPoolState extends PoolState {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder requestTime = new LongAdder();
+    private final LongAdder checkoutTime = new LongAdder();
+    private final LongAdder claimedOverdueConnections = new LongAdder();
+    private final LongAdder overdueCheckoutTime = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder badConnections = new LongAdder();
+
+    ConcurrentPoolState(PooledDataSource dataSource) {
+      super(dataSource);
+    }
+
+    @Override
+    public long getRequestCount() {
+      return requests.sum();
+    }
+
+    @Override
+    public long getAverageRequestTime() {
+      long count = requests.sum();
+      return count == 0 ? 0 : requestTime.sum() / count;
+    }
+
+    @Override
+    public long getAverageWaitTime() {
+      long count = waits.sum();
+      return count == 0 ? 0 : waitTime.sum() / count;
+    }
+
+    @Override
+    public long getHadToWaitCount() {
+      return waits.sum();
+    }
+
+    @Override
+    public long getBadConnectionCount() {
+      return badConnections.sum();
+    }
+
+    @Override
+    public long getClaimedOverdueConnectionCount() {
+      return claimedOverdueConnections.sum();
+    }
+
+    @Override
+    public long getAverageOverdueCheckoutTime() {
+      long count = claimedOverdueConnections.sum();
+      return count == 0 ? 0 : overdueCheckoutTime.sum() / count;
+    }
+
+    @Override
+    public long getAverageCheckoutTime() {
+      long count = requests.sum();
+      return count == 0 ? 0 : checkoutTime.sum() / count;
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+      return bag.getIdleCount();
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+      return bag.getInUseCount();
+    }
+
+    @Override
+    public int getWaitingThreadCount() {
+      return bag.getWaitingThreadCount();
+    }
+
+  }
+
+}
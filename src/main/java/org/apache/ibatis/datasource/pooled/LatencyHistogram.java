@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative durations.
+ * <p>
+ * Values are counted in logarithmic buckets, each power of two being split in 8 linear sub-buckets, so a percentile
+ * is reported with a relative error of at most 12.5% while recording is a single atomic increment.
+ *
+ * @since 3.5.4
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value the value
+   */
+  public void record(long value) {
+    long v = Math.max(value, 0);
+    buckets.incrementAndGet(indexOf(v));
+    count.increment();
+    sum.add(v);
+    max.accumulate(v);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public long getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : sum.sum() / n;
+  }
+
+  /**
+   * Gets an upper bound of the given percentile of the recorded values.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the value below which the given percentage of the values fall, or 0 if nothing was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long total = 0;
+    long[] snapshot = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Clears all recorded values. Values recorded concurrently may be partially lost.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50)
+        + ", p90=" + getValueAtPercentile(90) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax();
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long upperBoundOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+    int subBucket = index % SUB_BUCKET_COUNT;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return ((long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+  }
+
+}
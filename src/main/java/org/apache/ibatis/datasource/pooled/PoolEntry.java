@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A physical connection held by a {@link ConcurrentBag}.
+ * <p>
+ * The entry outlives the {@link PooledConnection} handed out on each checkout, so that a closed handle can never
+ * reach the real connection once it has been given to another thread.
+ */
+class PoolEntry {
+
+  static final int STATE_REMOVED = -1;
+  static final int STATE_IDLE = 0;
+  static final int STATE_IN_USE = 1;
+
+  private final Connection realConnection;
+  private final long createdTimestamp;
+  private final AtomicInteger state;
+  private final AtomicReference<PooledConnection> owner = new AtomicReference<>();
+  private volatile long lastUsedTimestamp;
+  private volatile long lastValidatedTimestamp;
+  private volatile PreparedStatementCache statementCache;
+
+  PoolEntry(Connection realConnection, int initialState) {
+    this.realConnection = realConnection;
+    this.createdTimestamp = System.currentTimeMillis();
+    this.lastUsedTimestamp = createdTimestamp;
+    this.lastValidatedTimestamp = createdTimestamp;
+    this.state = new AtomicInteger(initialState);
+  }
+
+  Connection getRealConnection() {
+    return realConnection;
+  }
+
+  long getCreatedTimestamp() {
+    return createdTimestamp;
+  }
+
+  long getLastUsedTimestamp() {
+    return lastUsedTimestamp;
+  }
+
+  void setLastUsedTimestamp(long lastUsedTimestamp) {
+    this.lastUsedTimestamp = lastUsedTimestamp;
+  }
+
+  long getLastValidatedTimestamp() {
+    return lastValidatedTimestamp;
+  }
+
+  void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+    this.lastValidatedTimestamp = lastValidatedTimestamp;
+  }
+
+  PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  void setStatementCache(PreparedStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
+  int getState() {
+    return state.get();
+  }
+
+  boolean compareAndSetState(int expect, int update) {
+    return state.compareAndSet(expect, update);
+  }
+
+  int getAndSetState(int update) {
+    return state.getAndSet(update);
+  }
+
+  /**
+   * Gets the handle currently checked out on this entry.
+   *
+   * @return the handle, or null if nobody owns the entry
+   */
+  PooledConnection getOwner() {
+    return owner.get();
+  }
+
+  void setOwner(PooledConnection conn) {
+    owner.set(conn);
+  }
+
+  /**
+   * Detaches the given handle from this entry. Only one of the returning thread and a thread claiming the entry as
+   * overdue can succeed.
+   *
+   * @param conn the handle expected to own the entry
+   * @return true if the caller now holds the entry exclusively
+   */
+  boolean releaseOwner(PooledConnection conn) {
+    return conn != null && owner.compareAndSet(conn, null);
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * Receives the events of a {@link PooledDataSource}, e.g. to export them to a metrics library.
+ * <p>
+ * Methods are called on the thread that checks out or returns the connection, without holding any lock of the pool,
+ * and must not block.
+ *
+ * @since 3.5.4
+ * @see PooledDataSource#setPoolMetricsListener(PoolMetricsListener)
+ */
+public interface PoolMetricsListener {
+
+  /**
+   * A connection was checked out.
+   *
+   * @param requestMicros the time in microseconds the caller waited for the connection
+   */
+  default void connectionCheckedOut(long requestMicros) {
+  }
+
+  /**
+   * A connection was returned to the pool.
+   *
+   * @param checkoutMicros the time in microseconds the connection was checked out
+   */
+  default void connectionReturned(long checkoutMicros) {
+  }
+
+  /**
+   * A caller gave up waiting for a connection.
+   *
+   * @param requestMicros the time in microseconds the caller waited
+   */
+  default void connectionRequestTimedOut(long requestMicros) {
+  }
+
+  /**
+   * A connection has been checked out for longer than the leak detection threshold.
+   *
+   * @param checkoutMillis the time in milliseconds the connection has been checked out
+   * @param checkoutTrace the stack trace of the thread that checked out the connection
+   */
+  default void connectionLeakSuspected(long checkoutMillis, Throwable checkoutTrace) {
+  }
+
+}
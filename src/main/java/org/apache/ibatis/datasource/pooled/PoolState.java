@@ -38,6 +38,14 @@ public class PoolState {
   protected long accumulatedWaitTime = 0;
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
+  protected long suspectedLeakCount = 0;
+  protected int waitingThreadCount = 0;
+  // 获取连接所用时间和连接被占用时间的分布，单位为微秒
+  protected final LatencyHistogram requestTimeHistogram = new LatencyHistogram();
+  protected final LatencyHistogram checkoutTimeHistogram = new LatencyHistogram();
+  // 连接数的快照，持有锁修改列表后发布，读取时无需加锁
+  private volatile int idleConnectionCount;
+  private volatile int activeConnectionCount;
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
@@ -76,13 +84,61 @@ public class PoolState {
     return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
   }
 
+  /**
+   * Gets the number of connections reported as possibly leaked.
+   *
+   * @return the number of suspected leaks
+   * @since 3.5.4
+   */
+  public synchronized long getSuspectedLeakCount() {
+    return suspectedLeakCount;
+  }
+
+  /**
+   * Gets the number of threads currently waiting for a connection.
+   *
+   * @return the number of waiting threads
+   * @since 3.5.4
+   */
+  public synchronized int getWaitingThreadCount() {
+    return waitingThreadCount;
+  }
+
+  /**
+   * Gets the distribution of the time in microseconds callers waited to get a connection.
+   *
+   * @return the histogram
+   * @since 3.5.4
+   */
+  public LatencyHistogram getRequestTimeHistogram() {
+    return requestTimeHistogram;
+  }
+
+  /**
+   * Gets the distribution of the time in microseconds connections were checked out.
+   *
+   * @return the histogram
+   * @since 3.5.4
+   */
+  public LatencyHistogram getCheckoutTimeHistogram() {
+    return checkoutTimeHistogram;
+  }
+
+  public int getIdleConnectionCount() {
+    return idleConnectionCount;
+  }
 
-  public synchronized int getIdleConnectionCount() {
-    return idleConnections.size();
+  public int getActiveConnectionCount() {
+    return activeConnectionCount;
   }
 
-  public synchronized int getActiveConnectionCount() {
-    return activeConnections.size();
+  /**
+   * Publishes the sizes of the connection lists. Must be called while holding the lock on this object, after the
+   * lists were modified.
+   */
+  protected void updateConnectionCounts() {
+    idleConnectionCount = idleConnections.size();
+    activeConnectionCount = activeConnections.size();
   }
 
   @Override
@@ -100,6 +156,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolLeakDetectionThreshold     ").append(dataSource.poolLeakDetectionThreshold);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -111,6 +168,10 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n suspectedLeakCount             ").append(getSuspectedLeakCount());
+    builder.append("\n waitingThreads                 ").append(getWaitingThreadCount());
+    builder.append("\n requestTimeMicros              ").append(getRequestTimeHistogram());
+    builder.append("\n checkoutTimeMicros             ").append(getCheckoutTimeHistogram());
     builder.append("\n===============================================================");
     return builder.toString();
   }
@@ -29,6 +29,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
@@ -36,10 +37,16 @@ class PooledConnection implements InvocationHandler {
   private final Connection realConnection;
   private final Connection proxyConnection;
   private long checkoutTimestamp;
+  private long checkoutNanoTime;
+  private volatile Throwable checkoutTrace;
+  private volatile boolean leakReported;
   private long createdTimestamp;
   private long lastUsedTimestamp;
+  private long lastValidatedTimestamp;
   private int connectionTypeCode;
-  private boolean valid;
+  private volatile boolean valid;
+  private PoolEntry poolEntry;
+  private PreparedStatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -53,6 +60,7 @@ class PooledConnection implements InvocationHandler {
     this.dataSource = dataSource;
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
+    this.lastValidatedTimestamp = this.lastUsedTimestamp;
     this.valid = true;
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
   }
@@ -154,6 +162,33 @@ class PooledConnection implements InvocationHandler {
     this.lastUsedTimestamp = lastUsedTimestamp;
   }
 
+  /**
+   * Getter for the time that the connection was last known to be good, either by a ping or by a background validation.
+   *
+   * @return - the timestamp
+   */
+  public long getLastValidatedTimestamp() {
+    return lastValidatedTimestamp;
+  }
+
+  /**
+   * Setter for the time that the connection was last known to be good.
+   *
+   * @param lastValidatedTimestamp - the timestamp
+   */
+  public void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+    this.lastValidatedTimestamp = lastValidatedTimestamp;
+  }
+
+  /**
+   * Getter for the time since this connection was last known to be good.
+   *
+   * @return - the time since the last validation
+   */
+  public long getTimeElapsedSinceLastValidation() {
+    return System.currentTimeMillis() - lastValidatedTimestamp;
+  }
+
   /**
    * Getter for the time since this connection was last used.
    *
@@ -190,6 +225,60 @@ class PooledConnection implements InvocationHandler {
     this.checkoutTimestamp = timestamp;
   }
 
+  /**
+   * Getter for the {@link System#nanoTime()} at which this connection was checked out.
+   *
+   * @return the nano time
+   */
+  public long getCheckoutNanoTime() {
+    return checkoutNanoTime;
+  }
+
+  /**
+   * Setter for the {@link System#nanoTime()} at which this connection was checked out.
+   *
+   * @param checkoutNanoTime - the nano time
+   */
+  public void setCheckoutNanoTime(long checkoutNanoTime) {
+    this.checkoutNanoTime = checkoutNanoTime;
+  }
+
+  /**
+   * Getter for the stack trace of the thread that checked out this connection, kept for leak detection.
+   *
+   * @return the stack trace, or null if leak detection is disabled
+   */
+  public Throwable getCheckoutTrace() {
+    return checkoutTrace;
+  }
+
+  /**
+   * Setter for the stack trace of the thread that checked out this connection.
+   *
+   * @param checkoutTrace - the stack trace
+   */
+  public void setCheckoutTrace(Throwable checkoutTrace) {
+    this.checkoutTrace = checkoutTrace;
+  }
+
+  /**
+   * Determines if this connection has already been reported as a possible leak.
+   *
+   * @return True if it was reported
+   */
+  public boolean isLeakReported() {
+    return leakReported;
+  }
+
+  /**
+   * Setter for whether this connection has been reported as a possible leak.
+   *
+   * @param leakReported - True if it was reported
+   */
+  public void setLeakReported(boolean leakReported) {
+    this.leakReported = leakReported;
+  }
+
   /**
    * Getter for the time that this connection has been checked out.
    *
@@ -199,6 +288,42 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the pool entry this connection was checked out from.
+   *
+   * @return the entry, or null if the connection does not come from a {@link ConcurrentBag}
+   */
+  PoolEntry getPoolEntry() {
+    return poolEntry;
+  }
+
+  /**
+   * Setter for the pool entry this connection was checked out from.
+   *
+   * @param poolEntry - the entry
+   */
+  void setPoolEntry(PoolEntry poolEntry) {
+    this.poolEntry = poolEntry;
+  }
+
+  /**
+   * Getter for the prepared statements cached on the real connection.
+   *
+   * @return the cache, or null if statements are not cached
+   */
+  PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the prepared statements cached on the real connection.
+   *
+   * @param statementCache - the cache
+   */
+  void setStatementCache(PreparedStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -242,6 +367,9 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();
       }
+      if (statementCache != null && PREPARE_STATEMENT.equals(methodName)) {
+        return statementCache.prepareStatement(realConnection, proxyConnection, method, args);
+      }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
@@ -16,13 +16,21 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -40,9 +48,10 @@ public class PooledDataSource implements DataSource {
 
   private static final Log log = LogFactory.getLog(PooledDataSource.class);
 
-  private final PoolState state = new PoolState(this);
+  // 首次使用时创建，子类的字段此时已初始化
+  private volatile PoolState poolState;
 
-  private final UnpooledDataSource dataSource;
+  protected final UnpooledDataSource dataSource;
 
   // OPTIONAL CONFIGURATION FIELDS
   protected int poolMaximumActiveConnections = 10;
@@ -53,8 +62,18 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolHousekeepingInterval;
+  protected int poolMinimumIdleConnections;
+  protected int poolMaximumConnectionLifetime;
+  protected int poolMaximumIdleTime;
+  protected int poolValidationTimeout = 5;
+  protected int poolLeakDetectionThreshold;
+  protected int poolMaximumCachedStatements;
 
-  private int expectedConnectionTypeCode;
+  protected int expectedConnectionTypeCode;
+
+  private volatile ScheduledExecutorService housekeeper;
+  private volatile PoolMetricsListener poolMetricsListener;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -86,11 +105,13 @@ public class PooledDataSource implements DataSource {
 
   @Override
   public Connection getConnection() throws SQLException {
+    startHousekeeper();
     return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
   }
 
   @Override
   public Connection getConnection(String username, String password) throws SQLException {
+    startHousekeeper();
     return popConnection(username, password).getProxyConnection();
   }
 
@@ -247,6 +268,106 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * How often a background thread validates and retires idle connections and creates new ones to keep
+   * {@link #setPoolMinimumIdleConnections(int)} connections ready. Idle connections that have not been used
+   * nor validated in the last {@link #setPoolPingConnectionsNotUsedFor(int)} milliseconds are validated; unless
+   * {@link #setPoolPingEnabled(boolean)} is set, this only discards the connections the driver reports as closed.
+   * The default is 0 (i.e. no background thread). The thread is started by the first request for a connection
+   * and stopped by {@link #forceCloseAll()}, or once the pool was collected if it was never closed.
+   *
+   * @param milliseconds the interval in milliseconds
+   * @since 3.5.4
+   */
+  public void setPoolHousekeepingInterval(int milliseconds) {
+    this.poolHousekeepingInterval = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle connections the background thread keeps ready. It is never more than the maximum
+   * number of idle connections.
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   * @since 3.5.4
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a connection may exist before the background thread closes it while it is idle.
+   * The default is 0 (i.e. no limit).
+   *
+   * @param milliseconds The maximum lifetime
+   * @since 3.5.4
+   */
+  public void setPoolMaximumConnectionLifetime(int milliseconds) {
+    this.poolMaximumConnectionLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a connection may stay idle before the background thread closes it, as long as more than
+   * the minimum number of idle connections are left. The default is 0 (i.e. no limit).
+   *
+   * @param milliseconds The maximum idle time
+   * @since 3.5.4
+   */
+  public void setPoolMaximumIdleTime(int milliseconds) {
+    this.poolMaximumIdleTime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The time in seconds the background thread waits for {@link Connection#isValid(int)}. The ping query is
+   * used instead when the driver does not support it. The default is 5.
+   *
+   * @param seconds The validation timeout
+   * @since 3.5.4
+   */
+  public void setPoolValidationTimeout(int seconds) {
+    this.poolValidationTimeout = seconds;
+    forceCloseAll();
+  }
+
+  /**
+   * If a connection is checked out for longer than this many milliseconds, a background thread logs a warning with
+   * the stack trace of the thread that checked it out. The stack trace is also logged when such a connection is
+   * claimed as overdue. Capturing the stack trace has a cost on every checkout. The default is 0 (i.e. disabled).
+   *
+   * @param milliseconds the threshold in milliseconds
+   * @since 3.5.4
+   */
+  public void setPoolLeakDetectionThreshold(int milliseconds) {
+    this.poolLeakDetectionThreshold = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum number of prepared statements kept open on each physical connection. A statement closed by a session
+   * is cleared and reused by the next session preparing the same SQL on the connection, the least recently used ones
+   * are closed beyond this number. The default is 0 (i.e. disabled).
+   *
+   * @param poolMaximumCachedStatements the maximum number of cached statements per connection
+   * @since 3.5.4
+   */
+  public void setPoolMaximumCachedStatements(int poolMaximumCachedStatements) {
+    this.poolMaximumCachedStatements = poolMaximumCachedStatements;
+    forceCloseAll();
+  }
+
+  /**
+   * Sets a listener notified of checkouts, returns, timeouts and suspected leaks.
+   *
+   * @param poolMetricsListener the listener, or null to remove it
+   * @since 3.5.4
+   */
+  public void setPoolMetricsListener(PoolMetricsListener poolMetricsListener) {
+    this.poolMetricsListener = poolMetricsListener;
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -314,10 +435,68 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolHousekeepingInterval() {
+    return poolHousekeepingInterval;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaximumConnectionLifetime() {
+    return poolMaximumConnectionLifetime;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaximumIdleTime() {
+    return poolMaximumIdleTime;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolValidationTimeout() {
+    return poolValidationTimeout;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolLeakDetectionThreshold() {
+    return poolLeakDetectionThreshold;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolMaximumCachedStatements() {
+    return poolMaximumCachedStatements;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public PoolMetricsListener getPoolMetricsListener() {
+    return poolMetricsListener;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
   public void forceCloseAll() {
+    final PoolState state = getPoolState();
+    stopHousekeeper();
     synchronized (state) {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       // 获取所有的活跃和闲置连接数，设置有效状态，判断是否自动提交来决定回滚操作
@@ -349,6 +528,7 @@ public class PooledDataSource implements DataSource {
           // ignore
         }
       }
+      state.updateConnectionCounts();
     }
     if (log.isDebugEnabled()) {
       log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -356,19 +536,51 @@ public class PooledDataSource implements DataSource {
   }
 
   public PoolState getPoolState() {
+    PoolState state = poolState;
+    if (state == null) {
+      synchronized (this) {
+        state = poolState;
+        if (state == null) {
+          state = newPoolState();
+          poolState = state;
+        }
+      }
+    }
     return state;
   }
 
-  private int assembleConnectionTypeCode(String url, String username, String password) {
+  /**
+   * Creates the state returned by {@link #getPoolState()}. Called once, the first time the state is needed.
+   *
+   * @return the pool state
+   * @since 3.5.4
+   */
+  protected PoolState newPoolState() {
+    return new PoolState(this);
+  }
+
+  /**
+   * Creates the cache of the prepared statements of a new physical connection.
+   *
+   * @return the cache, or null if statements are not cached
+   */
+  PreparedStatementCache newStatementCache() {
+    return poolMaximumCachedStatements > 0 ? new PreparedStatementCache(poolMaximumCachedStatements) : null;
+  }
+
+  protected int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
 
   // 关闭数据库连接的操作，这里不是真的关闭，只是将连接重新封装放在了闲置list中
   protected void pushConnection(PooledConnection conn) throws SQLException {
+    final PoolState state = getPoolState();
+    boolean returned = false;
 
     synchronized (state) {
       state.activeConnections.remove(conn);// 从活跃连接中移除该连接
       if (conn.isValid()) {
+        returned = true;
         // 闲置连接数小于最大闲置连接数，并且当前类型code与目标类型code相等
         if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
@@ -377,9 +589,11 @@ public class PooledDataSource implements DataSource {
           }
           // 封装了一个新的连接
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.setStatementCache(conn.getStatementCache());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
-          newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          newConn.setLastUsedTimestamp(System.currentTimeMillis());
+          newConn.setLastValidatedTimestamp(conn.getLastValidatedTimestamp());
           conn.invalidate();// 将当前连接置为无效
           if (log.isDebugEnabled()) {
             log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
@@ -402,13 +616,19 @@ public class PooledDataSource implements DataSource {
         }
         state.badConnectionCount++;
       }
+      state.updateConnectionCounts();
+    }
+    if (returned) {
+      recordReturn(conn);
     }
   }
 
-  private PooledConnection popConnection(String username, String password) throws SQLException {
+  protected PooledConnection popConnection(String username, String password) throws SQLException {
+    final PoolState state = getPoolState();
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long requestStartNanos = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -424,6 +644,7 @@ public class PooledDataSource implements DataSource {
           if (state.activeConnections.size() < poolMaximumActiveConnections) {// 虽然没有闲置连接，但是连接数还没到达最大连接数，故而创建一个新的连接
             // Can create new connection
             conn = new PooledConnection(dataSource.getConnection(), this);
+            conn.setStatementCache(newStatementCache());
             if (log.isDebugEnabled()) {
               log.debug("Created connection " + conn.getRealHashCode() + ".");
             }
@@ -455,12 +676,12 @@ public class PooledDataSource implements DataSource {
               }
               // 以旧连接的真实连接，创建一个新的连接
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              conn.setStatementCache(oldestActiveConnection.getStatementCache());
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+              conn.setLastValidatedTimestamp(oldestActiveConnection.getLastValidatedTimestamp());
               oldestActiveConnection.invalidate();// 将最旧连接置为无效
-              if (log.isDebugEnabled()) {
-                log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
-              }
+              logClaimedOverdueConnection(oldestActiveConnection, longestCheckoutTime);
             } else {// 若是没有连接可用，只能等待
               // Must wait
               try { // 不断循环等待
@@ -472,7 +693,12 @@ public class PooledDataSource implements DataSource {
                   log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                 }
                 long wt = System.currentTimeMillis();
-                state.wait(poolTimeToWait);// 每次设置要等待的时间为20000
+                state.waitingThreadCount++;
+                try {
+                  state.wait(poolTimeToWait);// 每次设置要等待的时间为20000
+                } finally {
+                  state.waitingThreadCount--;
+                }
                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;// 等待了多长时间
               } catch (InterruptedException e) {
                 break;
@@ -508,6 +734,7 @@ public class PooledDataSource implements DataSource {
             }
           }
         }
+        state.updateConnectionCounts();
       }
 
     }
@@ -519,9 +746,125 @@ public class PooledDataSource implements DataSource {
       throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
 
+    recordCheckout(conn, requestStartNanos);
     return conn;
   }
 
+  /**
+   * Records the statistics of a successful checkout. Must be called without holding the lock of the pool.
+   *
+   * @param conn - the connection checked out
+   * @param requestStartNanos - the {@link System#nanoTime()} at which the connection was requested
+   * @since 3.5.4
+   */
+  protected void recordCheckout(PooledConnection conn, long requestStartNanos) {
+    long now = System.nanoTime();
+    conn.setCheckoutNanoTime(now);
+    if (poolLeakDetectionThreshold > 0) {
+      conn.setCheckoutTrace(new Exception("Connection " + conn.getRealHashCode() + " was checked out here"));
+    }
+    long requestMicros = (now - requestStartNanos) / 1000;
+    getPoolState().requestTimeHistogram.record(requestMicros);
+    PoolMetricsListener listener = poolMetricsListener;
+    if (listener != null) {
+      listener.connectionCheckedOut(requestMicros);
+    }
+  }
+
+  /**
+   * Records the statistics of a connection returned by its user. Must be called without holding the lock of the pool.
+   *
+   * @param conn - the connection returned
+   * @since 3.5.4
+   */
+  protected void recordReturn(PooledConnection conn) {
+    long checkoutMicros = (System.nanoTime() - conn.getCheckoutNanoTime()) / 1000;
+    getPoolState().checkoutTimeHistogram.record(checkoutMicros);
+    if (conn.isLeakReported()) {
+      log.warn("Connection " + conn.getRealHashCode() + " previously reported as leaked was returned after "
+          + checkoutMicros / 1000 + " milliseconds.");
+    }
+    PoolMetricsListener listener = poolMetricsListener;
+    if (listener != null) {
+      listener.connectionReturned(checkoutMicros);
+    }
+  }
+
+  /**
+   * Records that a caller gave up waiting for a connection.
+   *
+   * @param requestStartNanos - the {@link System#nanoTime()} at which the connection was requested
+   * @since 3.5.4
+   */
+  protected void recordRequestTimeout(long requestStartNanos) {
+    PoolMetricsListener listener = poolMetricsListener;
+    if (listener != null) {
+      listener.connectionRequestTimedOut((System.nanoTime() - requestStartNanos) / 1000);
+    }
+  }
+
+  /**
+   * Logs a connection taken away from its user because it was checked out for longer than the maximum checkout time.
+   *
+   * @param conn - the overdue connection
+   * @param checkoutTime - the time in milliseconds it was checked out
+   * @since 3.5.4
+   */
+  protected void logClaimedOverdueConnection(PooledConnection conn, long checkoutTime) {
+    if (conn.getCheckoutTrace() != null) {
+      log.warn("Claimed overdue connection " + conn.getRealHashCode() + " after " + checkoutTime
+          + " milliseconds. " + stackTraceOf(conn.getCheckoutTrace()));
+    } else if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+  }
+
+  /**
+   * Reports the connections checked out for longer than the leak detection threshold. Each connection is reported
+   * once.
+   *
+   * @param activeConnections - the connections currently checked out
+   * @since 3.5.4
+   */
+  protected void detectLeaks(List<PooledConnection> activeConnections) {
+    for (PooledConnection conn : activeConnections) {
+      long checkoutTime = conn.getCheckoutTime();
+      if (conn.isLeakReported() || conn.getCheckoutTrace() == null || checkoutTime <= poolLeakDetectionThreshold) {
+        continue;
+      }
+      conn.setLeakReported(true);
+      PoolState state = getPoolState();
+      synchronized (state) {
+        state.suspectedLeakCount++;
+      }
+      log.warn("Connection " + conn.getRealHashCode() + " has been checked out for " + checkoutTime
+          + " milliseconds, it may have been leaked. " + stackTraceOf(conn.getCheckoutTrace()));
+      PoolMetricsListener listener = poolMetricsListener;
+      if (listener != null) {
+        listener.connectionLeakSuspected(checkoutTime, conn.getCheckoutTrace());
+      }
+    }
+  }
+
+  /**
+   * Gets a snapshot of the connections currently checked out.
+   *
+   * @return the connections
+   * @since 3.5.4
+   */
+  protected List<PooledConnection> getActiveConnections() {
+    final PoolState state = getPoolState();
+    synchronized (state) {
+      return new ArrayList<>(state.activeConnections);
+    }
+  }
+
+  private static String stackTraceOf(Throwable trace) {
+    StringWriter writer = new StringWriter();
+    trace.printStackTrace(new PrintWriter(writer));
+    return writer.toString();
+  }
+
   /**
    * Method to check to see if a connection is still usable
    * 检查连接是否可用的方法
@@ -542,7 +885,8 @@ public class PooledDataSource implements DataSource {
 
     if (result) {
       if (poolPingEnabled) {// 能不能ping连接池
-        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
+        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor
+            && conn.getTimeElapsedSinceLastValidation() > poolPingConnectionsNotUsedFor) {
           try {
             if (log.isDebugEnabled()) {
               log.debug("Testing connection " + conn.getRealHashCode() + " ...");
@@ -556,6 +900,7 @@ public class PooledDataSource implements DataSource {
               realConn.rollback();
             }
             result = true;
+            conn.setLastValidatedTimestamp(System.currentTimeMillis());
             if (log.isDebugEnabled()) {
               log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
             }
@@ -577,6 +922,213 @@ public class PooledDataSource implements DataSource {
     return result;
   }
 
+  /**
+   * Validates an idle connection from the background thread, preferring {@link Connection#isValid(int)} over the
+   * ping query. When pinging is disabled, only checks that the connection is not closed, so that the background thread
+   * does not make a round trip to the database for every idle connection on every pass.
+   *
+   * @param realConn - the real connection to check
+   * @return True if the connection is still usable
+   * @since 3.5.4
+   */
+  protected boolean validateConnection(Connection realConn) {
+    try {
+      if (!poolPingEnabled) {
+        return !realConn.isClosed();
+      }
+      return realConn.isValid(poolValidationTimeout);
+    } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+      // JDBC 3 driver: fall back to the ping query
+    } catch (SQLException e) {
+      return false;
+    }
+    try {
+      if (realConn.isClosed()) {
+        return false;
+      }
+      try (Statement statement = realConn.createStatement()) {
+        statement.executeQuery(poolPingQuery).close();
+      }
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      return true;
+    } catch (Exception e) {
+      log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Determines if the background thread should close an idle connection.
+   *
+   * @param age - the age of the connection
+   * @param idleTime - the time since the connection was last used
+   * @param idleCount - the current number of idle connections
+   * @return True if the connection should be closed
+   * @since 3.5.4
+   */
+  protected boolean isRetired(long age, long idleTime, int idleCount) {
+    if (poolMaximumConnectionLifetime > 0 && age > poolMaximumConnectionLifetime) {
+      return true;
+    }
+    return poolMaximumIdleTime > 0 && idleTime > poolMaximumIdleTime && idleCount > getMinimumIdle();
+  }
+
+  /**
+   * Gets the number of idle connections the background thread keeps ready.
+   *
+   * @return the minimum number of idle connections, capped by the maximum
+   * @since 3.5.4
+   */
+  protected int getMinimumIdle() {
+    return Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections);
+  }
+
+  /**
+   * Validates and retires idle connections, then fills the pool up to the minimum number of idle connections.
+   * Runs on the background thread every {@link #getPoolHousekeepingInterval()} milliseconds.
+   *
+   * @since 3.5.4
+   */
+  protected void housekeep() {
+    final PoolState state = getPoolState();
+    List<PooledConnection> candidates;
+    synchronized (state) {
+      candidates = new ArrayList<>(state.idleConnections);
+    }
+    int idleCount = candidates.size();
+    for (PooledConnection conn : candidates) {
+      boolean retired = isRetired(conn.getAge(), conn.getTimeElapsedSinceLastUse(), idleCount);
+      if (!retired && conn.getTimeElapsedSinceLastValidation() <= poolPingConnectionsNotUsedFor) {
+        continue;
+      }
+      // take the connection out of the pool while it is checked
+      synchronized (state) {
+        if (!state.idleConnections.remove(conn)) {
+          continue;
+        }
+        state.updateConnectionCounts();
+      }
+      if (!retired && validateConnection(conn.getRealConnection())) {
+        conn.setLastValidatedTimestamp(System.currentTimeMillis());
+        synchronized (state) {
+          if (!Thread.currentThread().isInterrupted()
+              && state.idleConnections.size() < poolMaximumIdleConnections
+              && state.idleConnections.size() + state.activeConnections.size() < poolMaximumActiveConnections) {
+            state.idleConnections.add(conn);
+            state.updateConnectionCounts();
+            state.notifyAll();
+            continue;
+          }
+        }
+      } else if (!retired) {
+        synchronized (state) {
+          state.badConnectionCount++;
+        }
+      }
+      idleCount--;
+      closeIdleConnection(conn);
+      if (log.isDebugEnabled()) {
+        log.debug((retired ? "Retired" : "Discarded") + " idle connection " + conn.getRealHashCode() + ".");
+      }
+    }
+    while (!Thread.currentThread().isInterrupted()) {
+      synchronized (state) {
+        if (!canAddIdleConnection()) {
+          return;
+        }
+      }
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+        conn.setStatementCache(newStatementCache());
+      } catch (SQLException e) {
+        log.warn("Could not create a connection to keep the pool warm: " + e.getMessage());
+        return;
+      }
+      synchronized (state) {
+        if (!Thread.currentThread().isInterrupted() && canAddIdleConnection()) {
+          state.idleConnections.add(conn);
+          state.updateConnectionCounts();
+          state.notifyAll();
+          if (log.isDebugEnabled()) {
+            log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+          }
+          continue;
+        }
+      }
+      closeIdleConnection(conn);
+      return;
+    }
+  }
+
+  private boolean canAddIdleConnection() {
+    final PoolState state = getPoolState();
+    return state.idleConnections.size() < getMinimumIdle()
+        && state.idleConnections.size() + state.activeConnections.size() < poolMaximumActiveConnections;
+  }
+
+  private void closeIdleConnection(PooledConnection conn) {
+    conn.invalidate();
+    try {
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private void startHousekeeper() {
+    if ((poolHousekeepingInterval <= 0 && poolLeakDetectionThreshold <= 0) || housekeeper != null) {
+      return;
+    }
+    synchronized (this) {
+      if (housekeeper == null) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(Housekeeper::newThread);
+        int interval = poolHousekeepingInterval > 0 ? poolHousekeepingInterval : poolLeakDetectionThreshold;
+        if (poolLeakDetectionThreshold > 0) {
+          // a leak is reported at most one threshold late
+          interval = Math.min(interval, poolLeakDetectionThreshold);
+        }
+        executor.scheduleWithFixedDelay(new Housekeeper(this, executor), 0, interval, TimeUnit.MILLISECONDS);
+        housekeeper = executor;
+      }
+    }
+  }
+
+  private void runHousekeeper() {
+    try {
+      if (poolLeakDetectionThreshold > 0) {
+        detectLeaks(getActiveConnections());
+      }
+      if (poolHousekeepingInterval > 0) {
+        housekeep();
+      }
+    } catch (Exception e) {
+      log.warn("Error while housekeeping the pool: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops the background thread, if any. It is started again by the next request for a connection.
+   *
+   * @since 3.5.4
+   */
+  protected void stopHousekeeper() {
+    ScheduledExecutorService executor;
+    synchronized (this) {
+      executor = housekeeper;
+      housekeeper = null;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * Unwraps a pooled connection to get to the 'real' connection
    * 对一个池化的连接卸妆为真实连接
@@ -593,6 +1145,38 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  /**
+   * The task of the background thread. It only holds the pool through a weak reference, so that a pool that is not
+   * closed can still be collected, its connections being closed by {@link #finalize()}, and then stops the thread.
+   */
+  private static class Housekeeper implements Runnable {
+
+    private final WeakReference<PooledDataSource> pool;
+    private final ScheduledExecutorService executor;
+
+    Housekeeper(PooledDataSource pool, ScheduledExecutorService executor) {
+      this.pool = new WeakReference<>(pool);
+      this.executor = executor;
+    }
+
+    static Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "mybatis-pool-housekeeper");
+      thread.setDaemon(true);
+      return thread;
+    }
+
+    @Override
+    public void run() {
+      PooledDataSource dataSource = pool.get();
+      if (dataSource == null) {
+        executor.shutdown();
+        return;
+      }
+      dataSource.runHousekeeper();
+    }
+
+  }
+
   @Override
   protected void finalize() throws Throwable {
     forceCloseAll();
@@ -0,0 +1,254 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The prepared statements of a physical connection, kept open when the statements are closed so that the next
+ * sessions using the connection reuse them.
+ * <p>
+ * The cache outlives the {@link PooledConnection} handed out on each checkout. A statement is removed from the cache
+ * while it is in use, so a same SQL prepared twice at once gets two statements, and it goes back to the cache, as the
+ * most recently used one, when it is closed. The least recently used statements are closed beyond the maximum size.
+ * The statements still cached are closed with the physical connection.
+ * <p>
+ * The settings a user may change are restored when the statement goes back to the cache. The ones that cannot be read
+ * back, the escape processing and the cursor name, make the statement be closed instead.
+ */
+class PreparedStatementCache {
+
+  private static final Log log = LogFactory.getLog(PreparedStatementCache.class);
+
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+
+  private final int maximumSize;
+  // insertion ordered: the statements are removed when used and added back when closed
+  private final LinkedHashMap<StatementKey, CachedStatement> statements = new LinkedHashMap<>();
+
+  PreparedStatementCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Gets a cached statement or prepares a new one.
+   *
+   * @param realConnection the connection preparing the statements
+   * @param proxyConnection the connection returned by the statements
+   * @param prepareMethod the <code>prepareStatement</code> method called
+   * @param args its arguments, the SQL and the result set type, concurrency, holdability or generated keys
+   * @return a statement returning to this cache when closed
+   */
+  PreparedStatement prepareStatement(Connection realConnection, Connection proxyConnection, Method prepareMethod,
+      Object[] args) throws Throwable {
+    StatementKey key = new StatementKey(args);
+    CachedStatement cached = take(key);
+    if (cached == null) {
+      PreparedStatement statement;
+      try {
+        statement = (PreparedStatement) prepareMethod.invoke(realConnection, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+      cached = new CachedStatement(key, statement);
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES,
+        new StatementHandle(cached, proxyConnection));
+  }
+
+  synchronized int size() {
+    return statements.size();
+  }
+
+  private CachedStatement take(StatementKey key) throws SQLException {
+    CachedStatement cached;
+    synchronized (this) {
+      cached = statements.remove(key);
+    }
+    if (cached != null && cached.statement.isClosed()) {
+      // e.g. closed by the driver because of closeOnCompletion()
+      return null;
+    }
+    return cached;
+  }
+
+  private void release(CachedStatement cached) {
+    CachedStatement evicted = null;
+    synchronized (this) {
+      if (statements.containsKey(cached.key)) {
+        // the same SQL was prepared twice at once, one idle statement is enough
+        evicted = cached;
+      } else {
+        statements.put(cached.key, cached);
+        if (statements.size() > maximumSize) {
+          Iterator<CachedStatement> eldest = statements.values().iterator();
+          evicted = eldest.next();
+          eldest.remove();
+        }
+      }
+    }
+    if (evicted != null) {
+      evicted.close();
+    }
+  }
+
+  private static final class StatementKey {
+    private final Object[] args;
+    private final int hashCode;
+
+    StatementKey(Object[] args) {
+      this.args = args.clone();
+      this.hashCode = Arrays.deepHashCode(args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof StatementKey && Arrays.deepEquals(args, ((StatementKey) o).args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class CachedStatement {
+    private final StatementKey key;
+    private final PreparedStatement statement;
+    private final int fetchSize;
+    private final int fetchDirection;
+    private final int queryTimeout;
+    private final int maxRows;
+    private final int maxFieldSize;
+    private final boolean poolable;
+
+    CachedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.fetchSize = statement.getFetchSize();
+      this.fetchDirection = statement.getFetchDirection();
+      this.queryTimeout = statement.getQueryTimeout();
+      this.maxRows = statement.getMaxRows();
+      this.maxFieldSize = statement.getMaxFieldSize();
+      this.poolable = statement.isPoolable();
+    }
+
+    /**
+     * Clears what the previous user left on the statement.
+     */
+    void reset() throws SQLException {
+      statement.clearParameters();
+      statement.clearBatch();
+      statement.clearWarnings();
+      if (statement.getFetchSize() != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      if (statement.getFetchDirection() != fetchDirection) {
+        statement.setFetchDirection(fetchDirection);
+      }
+      if (statement.getQueryTimeout() != queryTimeout) {
+        statement.setQueryTimeout(queryTimeout);
+      }
+      if (statement.getMaxRows() != maxRows) {
+        statement.setMaxRows(maxRows);
+      }
+      if (statement.getMaxFieldSize() != maxFieldSize) {
+        statement.setMaxFieldSize(maxFieldSize);
+      }
+      if (statement.isPoolable() != poolable) {
+        statement.setPoolable(poolable);
+      }
+    }
+
+    void close() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        log.debug("Could not close a cached statement: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * The statement handed out for one use of a cached statement.
+   */
+  private final class StatementHandle implements InvocationHandler {
+    private final CachedStatement cached;
+    private final Connection proxyConnection;
+    private boolean closed;
+    // a setting was changed that cannot be read back to be restored
+    private boolean unrestorable;
+
+    StatementHandle(CachedStatement cached, Connection proxyConnection) {
+      this.cached = cached;
+      this.proxyConnection = proxyConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if (Object.class.equals(method.getDeclaringClass())) {
+        return method.invoke(this, args);
+      } else if ("close".equals(methodName)) {
+        close();
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return closed || cached.statement.isClosed();
+      } else if ("getConnection".equals(methodName)) {
+        return proxyConnection;
+      } else if (closed) {
+        throw new SQLException("Statement is closed.");
+      } else if ("setEscapeProcessing".equals(methodName) || "setCursorName".equals(methodName)) {
+        unrestorable = true;
+      }
+      try {
+        return method.invoke(cached.statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (unrestorable) {
+          cached.close();
+        } else if (!cached.statement.isClosed()) {
+          cached.reset();
+          release(cached);
+        }
+      } catch (SQLException e) {
+        cached.close();
+      }
+    }
+  }
+
+}
@@ -20,9 +20,14 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.ibatis.builder.MultiRowInsertSqlSource;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
@@ -62,6 +67,14 @@ public abstract class BaseExecutor implements Executor {
   protected int queryStack;
   private boolean closed;
 
+  private final int localCacheSize;
+  private final int localCacheMaxRows;
+  // the row counts of the cached results, least recently used first, when the local cache is bounded
+  private final Map<CacheKey, Integer> localCacheRows;
+  private int localCacheRowCount;
+  // the results of the statements not using the local cache, removed once the outermost query is complete
+  private final List<CacheKey> queryScopedKeys = new ArrayList<>();
+
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
@@ -70,6 +83,10 @@ public abstract class BaseExecutor implements Executor {
     this.closed = false;
     this.configuration = configuration;
     this.wrapper = this;
+    // the executor of the deserialized lazy loaders has no configuration
+    this.localCacheSize = configuration == null ? 0 : positiveOrZero(configuration.getLocalCacheSize());
+    this.localCacheMaxRows = configuration == null ? 0 : positiveOrZero(configuration.getLocalCacheMaxRows());
+    this.localCacheRows = localCacheSize > 0 || localCacheMaxRows > 0 ? new LinkedHashMap<>(16, 0.75f, true) : null;
   }
 
   @Override
@@ -114,9 +131,39 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
+    if (ms.getMultiRowInsertStatement() != null) {
+      List<?> rows = MultiRowInsertSqlSource.getRows(parameter);
+      if (rows != null) {
+        return doMultiRowInsert(ms, rows);
+      }
+    }
     return doUpdate(ms, parameter);
   }
 
+  /**
+   * Inserts the rows by chunks of <code>multiRowInsertSize</code> rows, so there are only two statements to prepare
+   * whatever the number of rows: the multi-row one and the single row one used for the remaining rows.
+   */
+  private int doMultiRowInsert(MappedStatement ms, List<?> rows) throws SQLException {
+    final int chunkSize = ms.getMultiRowInsertSize();
+    int updateCount = 0;
+    int start = 0;
+    for (; start + chunkSize <= rows.size(); start += chunkSize) {
+      updateCount = addUpdateCount(updateCount, doUpdate(ms.getMultiRowInsertStatement(), new ArrayList<>(rows.subList(start, start + chunkSize))));
+    }
+    for (; start < rows.size(); start++) {
+      updateCount = addUpdateCount(updateCount, doUpdate(ms, rows.get(start)));
+    }
+    return updateCount;
+  }
+
+  private static int addUpdateCount(int updateCount, int chunkUpdateCount) {
+    if (updateCount == BatchExecutor.BATCH_UPDATE_RETURN_VALUE || chunkUpdateCount == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+      return BatchExecutor.BATCH_UPDATE_RETURN_VALUE;
+    }
+    return updateCount + chunkUpdateCount;
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return flushStatements(false);
@@ -151,6 +198,10 @@ public abstract class BaseExecutor implements Executor {
       queryStack++;
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
+        if (localCacheRows != null) {
+          // marks the result as recently used
+          localCacheRows.get(key);
+        }
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
         list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
@@ -164,6 +215,9 @@ public abstract class BaseExecutor implements Executor {
       }
       // issue #601
       deferredLoads.clear();
+      // nothing refers to the cached results any more
+      removeQueryScopedResults();
+      evictLocalCache();
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         // issue #482
         clearLocalCache();
@@ -264,6 +318,11 @@ public abstract class BaseExecutor implements Executor {
     if (!closed) {
       localCache.clear();
       localOutputParameterCache.clear();
+      queryScopedKeys.clear();
+      if (localCacheRows != null) {
+        localCacheRows.clear();
+        localCacheRowCount = 0;
+      }
     }
   }
 
@@ -329,9 +388,52 @@ public abstract class BaseExecutor implements Executor {
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
     }
+    if (!ms.isUseLocalCache()) {
+      // still needed by the circular references and the deferred loads of the outermost query
+      queryScopedKeys.add(key);
+    } else if (localCacheRows != null) {
+      int rows = list == null ? 0 : list.size();
+      Integer previousRows = localCacheRows.put(key, rows);
+      localCacheRowCount += previousRows == null ? rows : rows - previousRows;
+    }
     return list;
   }
 
+  private void removeQueryScopedResults() {
+    for (CacheKey key : queryScopedKeys) {
+      removeLocallyCachedResult(key);
+    }
+    queryScopedKeys.clear();
+  }
+
+  /**
+   * Removes the least recently used results beyond the <code>localCacheSize</code> and <code>localCacheMaxRows</code>
+   * settings. This is only done between the outermost queries because the deferred loads of a query read the results
+   * of its nested queries once it is complete.
+   */
+  private void evictLocalCache() {
+    if (localCacheRows == null) {
+      return;
+    }
+    Iterator<Map.Entry<CacheKey, Integer>> eldest = localCacheRows.entrySet().iterator();
+    while (eldest.hasNext() && (localCacheSize > 0 && localCacheRows.size() > localCacheSize
+        || localCacheMaxRows > 0 && localCacheRowCount > localCacheMaxRows)) {
+      Map.Entry<CacheKey, Integer> entry = eldest.next();
+      localCacheRowCount -= entry.getValue();
+      eldest.remove();
+      removeLocallyCachedResult(entry.getKey());
+    }
+  }
+
+  private void removeLocallyCachedResult(CacheKey key) {
+    localCache.removeObject(key);
+    localOutputParameterCache.removeObject(key);
+  }
+
+  private static int positiveOrZero(Integer value) {
+    return value == null || value < 0 ? 0 : value;
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
@@ -21,8 +21,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.ibatis.builder.MultiRowInsertSqlSource;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -30,6 +33,7 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -46,6 +50,12 @@ public class BatchExecutor extends BaseExecutor {
   private final List<BatchResult> batchResultList = new ArrayList<>();
   private String currentSql;
   private MappedStatement currentStatement;
+  // batchGroupingEnabled: the index in statementList of the insert statements still open to new rows, by SQL
+  private final Map<String, Integer> openInsertBatches = new HashMap<>();
+  // the total update count of the batches executed because a batch size was reached, one per statement and SQL, kept
+  // for the next flush when there is no listener
+  private final List<BatchResult> executedBatchResults = new ArrayList<>();
+  private int pendingRows;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -58,12 +68,13 @@ public class BatchExecutor extends BaseExecutor {
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
+    final BatchResult batchResult;
+    final int index = findBatch(ms, sql);
+    if (index >= 0) {
+      stmt = statementList.get(index);
       applyTransactionTimeout(stmt);
       handler.parameterize(stmt);//fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+      batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
       Connection connection = getConnection(ms.getStatementLog());
@@ -72,12 +83,99 @@ public class BatchExecutor extends BaseExecutor {
       currentSql = sql;
       currentStatement = ms;
       statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      batchResultList.add(batchResult);
+      if (ms.getSqlCommandType() == SqlCommandType.INSERT && configuration.isBatchGroupingEnabled()) {
+        openInsertBatches.put(sql, statementList.size() - 1);
+      }
     }
     handler.batch(stmt);
+    // a chunk of a multi-row insert counts for all its rows
+    pendingRows += ms.getSqlSource() instanceof MultiRowInsertSqlSource ? ((List<?>) parameterObject).size() : 1;
+    if (isBatchFull(batchResult)) {
+      executeBatches();
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private boolean isBatchFull(BatchResult batchResult) {
+    Integer batchSize = batchResult.getMappedStatement().getBatchSize();
+    if (batchSize == null) {
+      batchSize = configuration.getDefaultBatchSize();
+    }
+    if (batchSize != null && batchSize > 0 && batchResult.getParameterObjects().size() >= batchSize) {
+      return true;
+    }
+    Integer maxBatchRows = configuration.getMaxBatchRows();
+    return maxBatchRows != null && maxBatchRows > 0 && pendingRows >= maxBatchRows;
+  }
+
+  /**
+   * Executes all the pending batches, not only the full one, so the statements still run in the order they were
+   * added. Their results are reported to the listener. When there is none, only their update counts are added to the
+   * total kept for each statement until the next flush, so that the memory a session holds stays bounded.
+   */
+  private void executeBatches() throws SQLException {
+    List<BatchResult> results = new ArrayList<>();
+    try {
+      executeStatements(results);
+    } finally {
+      clearStatements();
+    }
+    if (configuration.getBatchResultListener() == null) {
+      for (BatchResult result : results) {
+        addUpdateCounts(result);
+      }
+    }
+  }
+
+  /**
+   * Adds the update counts of an executed batch to the total of its statement and SQL. The total is a single count,
+   * or {@link Statement#SUCCESS_NO_INFO} when the driver did not report the count of some row.
+   */
+  private void addUpdateCounts(BatchResult result) {
+    BatchResult summary = null;
+    for (BatchResult executed : executedBatchResults) {
+      if (executed.getMappedStatement().equals(result.getMappedStatement()) && executed.getSql().equals(result.getSql())) {
+        summary = executed;
+        break;
+      }
+    }
+    if (summary == null) {
+      summary = new BatchResult(result.getMappedStatement(), result.getSql());
+      summary.setUpdateCounts(new int[] { 0 });
+      executedBatchResults.add(summary);
+    }
+    int[] total = summary.getUpdateCounts();
+    for (int updateCount : result.getUpdateCounts()) {
+      if (updateCount == Statement.SUCCESS_NO_INFO || total[0] == Statement.SUCCESS_NO_INFO) {
+        total[0] = Statement.SUCCESS_NO_INFO;
+      } else if (updateCount > 0) {
+        total[0] += updateCount;
+      }
+    }
+  }
+
+  /**
+   * Finds the batch a statement can be added to. By default only the last batch is reused, so interleaved statements
+   * open a new batch each time. With <code>batchGroupingEnabled</code>, the inserts are added to the batch of the
+   * first insert with the same SQL, the batches being executed in the order they were opened: the first insert into
+   * a parent table must come before the first insert into its child tables. Inserts are only regrouped among
+   * themselves, a statement of another kind closes the open batches, so it still runs after the inserts that preceded
+   * it and before the ones that follow it.
+   */
+  private int findBatch(MappedStatement ms, String sql) {
+    if (ms.getSqlCommandType() == SqlCommandType.INSERT && !openInsertBatches.isEmpty()) {
+      Integer index = openInsertBatches.get(sql);
+      if (index != null && batchResultList.get(index).getMappedStatement().equals(ms)) {
+        return index;
+      }
+    } else if (ms.getSqlCommandType() != SqlCommandType.INSERT) {
+      openInsertBatches.clear();
+    }
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -111,54 +209,79 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      List<BatchResult> results = new ArrayList<>(executedBatchResults);
+      executedBatchResults.clear();
       if (isRollback) {
         return Collections.emptyList();
       }
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
-        BatchResult batchResult = batchResultList.get(i);
-        try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
+      executeStatements(results);
+      return results;
+    } finally {
+      clearStatements();
+    }
+  }
+
+  /**
+   * Executes the pending statements, adding their results to the given list and reporting them to the listener.
+   */
+  private void executeStatements(List<BatchResult> results) throws SQLException {
+    BatchResultListener listener = configuration.getBatchResultListener();
+    for (int i = 0, n = statementList.size(); i < n; i++) {
+      Statement stmt = statementList.get(i);
+      applyTransactionTimeout(stmt);
+      BatchResult batchResult = batchResultList.get(i);
+      try {
+        batchResult.setUpdateCounts(stmt.executeBatch());
+        MappedStatement ms = batchResult.getMappedStatement();
+        List<Object> parameterObjects = batchResult.getParameterObjects();
+        if (ms.getSqlSource() instanceof MultiRowInsertSqlSource) {
+          // each parameter object is the list of the rows of a multi-row insert
+          parameterObjects = new ArrayList<>();
+          for (Object rows : batchResult.getParameterObjects()) {
+            parameterObjects.addAll((List<?>) rows);
           }
-          // Close statement to close cursor #1109
-          closeStatement(stmt);
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+        KeyGenerator keyGenerator = ms.getKeyGenerator();
+        if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+          Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+          jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+        } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+          for (Object parameter : parameterObjects) {
+            keyGenerator.processAfter(this, ms, stmt, parameter);
           }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
-        results.add(batchResult);
-      }
-      return results;
-    } finally {
-      for (Statement stmt : statementList) {
+        // Close statement to close cursor #1109
         closeStatement(stmt);
+      } catch (BatchUpdateException e) {
+        StringBuilder message = new StringBuilder();
+        message.append(batchResult.getMappedStatement().getId())
+            .append(" (batch index #")
+            .append(i + 1)
+            .append(")")
+            .append(" failed.");
+        if (i > 0) {
+          message.append(" ")
+              .append(i)
+              .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+        throw new BatchExecutorException(message.toString(), e, results, batchResult);
       }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
+      results.add(batchResult);
+      if (listener != null) {
+        listener.onBatchResult(batchResult);
+      }
+    }
+  }
+
+  private void clearStatements() {
+    for (Statement stmt : statementList) {
+      closeStatement(stmt);
     }
+    currentSql = null;
+    statementList.clear();
+    batchResultList.clear();
+    openInsertBatches.clear();
+    pendingRows = 0;
   }
 
 }
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+/**
+ * Receives the results of the batches executed by a <code>BatchExecutor</code>. When a listener is configured, the
+ * batches executed automatically because of the <code>defaultBatchSize</code> or <code>maxBatchRows</code> settings
+ * are only reported to it, with their parameter objects. Without a listener, the next flush of the session only
+ * returns one result per statement and SQL for them, without parameter objects, holding the total update count.
+ *
+ * @since 3.5.4
+ * @see org.apache.ibatis.session.Configuration#setBatchResultListener(BatchResultListener)
+ */
+@FunctionalInterface
+public interface BatchResultListener {
+
+  /**
+   * Called after a batch was executed and its generated keys were assigned.
+   *
+   * @param batchResult the result of the batch
+   */
+  void onBatchResult(BatchResult batchResult);
+
+}
@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
@@ -28,6 +29,7 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -40,6 +42,8 @@ public class CachingExecutor implements Executor {
 
   private final Executor delegate;
   private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  // true once this session has run a statement that has not been committed nor rolled back yet
+  private boolean dirty;
 
   public CachingExecutor(Executor delegate) {
     this.delegate = delegate;
@@ -73,6 +77,7 @@ public class CachingExecutor implements Executor {
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
     flushCacheIfRequired(ms);
+    dirty = true;
     return delegate.update(ms, parameterObject);
   }
 
@@ -100,7 +105,13 @@ public class CachingExecutor implements Executor {
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
-          list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          Configuration configuration = ms.getConfiguration();
+          if (isCoalescible(configuration, cache)) {
+            list = configuration.getCacheLoadCoalescer().load(cache, key, configuration.getCacheLoadCoalescingTimeout(),
+                () -> queryDatabase(ms, parameterObject, rowBounds, resultHandler, key, boundSql));
+          } else {
+            list = queryDatabase(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          }
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
         return list;
@@ -109,6 +120,25 @@ public class CachingExecutor implements Executor {
     return delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  private boolean isCoalescible(Configuration configuration, Cache cache) {
+    // the sessions share the result objects, and a session with uncommitted changes must see them and only them
+    return configuration.isCacheLoadCoalescingEnabled()
+        && configuration.isReadOnlyCache(cache.getId())
+        && !dirty
+        && !tcm.isClearOnCommit(cache);
+  }
+
+  private <E> List<E> queryDatabase(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql)
+      throws SQLException {
+    long start = System.nanoTime();
+    List<E> list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    CacheStatistics statistics = ms.getConfiguration().getCacheStatistics(ms.getCache().getId());
+    if (statistics != null) {
+      statistics.recordLoad(System.nanoTime() - start);
+    }
+    return list;
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -118,6 +148,7 @@ public class CachingExecutor implements Executor {
   public void commit(boolean required) throws SQLException {
     delegate.commit(required);
     tcm.commit();
+    dirty = false;
   }
 
   @Override
@@ -128,6 +159,7 @@ public class CachingExecutor implements Executor {
       if (required) {
         tcm.rollback();
       }
+      dirty = false;
     }
   }
 
@@ -0,0 +1,226 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * A result handler that reads the first columns of the rows into growable primitive arrays, one per column, for bulk
+ * queries such as selecting ids or (id, amount) pairs. The values are read by index straight from the result set:
+ * no result object is created, nothing is boxed and the result map of the statement is ignored.
+ * <pre>
+ * ColumnarResultHandler handler = new ColumnarResultHandler(long.class, double.class);
+ * sqlSession.select("selectAmounts", handler);
+ * long[] ids = handler.getLongs(0);
+ * double[] amounts = handler.getDoubles(1);
+ * </pre>
+ * A SQL <code>NULL</code> is read as <code>0</code> and can be told apart with {@link #isNull(int, int)}.
+ *
+ * @since 3.5.4
+ */
+public class ColumnarResultHandler implements ResultHandler<Object> {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Column[] columns;
+  private int capacity = INITIAL_CAPACITY;
+  private int rowCount;
+
+  /**
+   * Creates a handler reading the first columns of each row.
+   *
+   * @param columnTypes the type of each column: <code>long.class</code>, <code>int.class</code> or
+   *          <code>double.class</code>
+   */
+  public ColumnarResultHandler(Class<?>... columnTypes) {
+    if (columnTypes.length == 0) {
+      throw new ExecutorException("A columnar result handler needs at least one column type.");
+    }
+    columns = new Column[columnTypes.length];
+    for (int i = 0; i < columnTypes.length; i++) {
+      columns[i] = newColumn(columnTypes[i]);
+    }
+  }
+
+  private static Column newColumn(Class<?> type) {
+    if (type == long.class || type == Long.class) {
+      return new LongColumn();
+    } else if (type == int.class || type == Integer.class) {
+      return new IntColumn();
+    } else if (type == double.class || type == Double.class) {
+      return new DoubleColumn();
+    }
+    throw new ExecutorException("Unsupported column type for a columnar result handler: " + type
+        + ". Supported types are long, int and double.");
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Appends the current row of a result set. Called by the result set handler for each row.
+   *
+   * @param rs the result set, positioned on the row
+   * @throws SQLException if a column cannot be read
+   */
+  public void handleRow(ResultSet rs) throws SQLException {
+    if (rowCount == capacity) {
+      capacity = capacity + (capacity >> 1);
+      for (Column column : columns) {
+        column.grow(capacity);
+      }
+    }
+    for (int i = 0; i < columns.length; i++) {
+      Column column = columns[i];
+      column.read(rs, i + 1, rowCount);
+      if (rs.wasNull()) {
+        column.setNull(rowCount);
+      }
+    }
+    rowCount++;
+  }
+
+  @Override
+  public void handleResult(ResultContext<?> context) {
+    throw new ExecutorException("A columnar result handler reads the rows from the result set, it does not take result objects. "
+        + "Statements with nested result maps are not supported.");
+  }
+
+  /**
+   * Gets the values of a <code>long</code> column.
+   *
+   * @param column the index of the column, starting at 0
+   * @return a new array of {@link #getRowCount()} values
+   */
+  public long[] getLongs(int column) {
+    return Arrays.copyOf(getColumn(column, LongColumn.class, "long").values, rowCount);
+  }
+
+  /**
+   * Gets the values of an <code>int</code> column.
+   *
+   * @param column the index of the column, starting at 0
+   * @return a new array of {@link #getRowCount()} values
+   */
+  public int[] getInts(int column) {
+    return Arrays.copyOf(getColumn(column, IntColumn.class, "int").values, rowCount);
+  }
+
+  /**
+   * Gets the values of a <code>double</code> column.
+   *
+   * @param column the index of the column, starting at 0
+   * @return a new array of {@link #getRowCount()} values
+   */
+  public double[] getDoubles(int column) {
+    return Arrays.copyOf(getColumn(column, DoubleColumn.class, "double").values, rowCount);
+  }
+
+  /**
+   * Returns whether a value was SQL <code>NULL</code>.
+   *
+   * @param row the index of the row, starting at 0
+   * @param column the index of the column, starting at 0
+   * @return true if the value was <code>NULL</code>
+   */
+  public boolean isNull(int row, int column) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+    }
+    BitSet nulls = getColumn(column, Column.class, null).nulls;
+    return nulls != null && nulls.get(row);
+  }
+
+  private <T extends Column> T getColumn(int column, Class<T> type, String typeName) {
+    if (column < 0 || column >= columns.length) {
+      throw new IndexOutOfBoundsException("Column: " + column + ", column count: " + columns.length);
+    }
+    if (!type.isInstance(columns[column])) {
+      throw new ExecutorException("Column " + column + " is not a " + typeName + " column.");
+    }
+    return type.cast(columns[column]);
+  }
+
+  private abstract static class Column {
+    private BitSet nulls;
+
+    abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+    abstract void grow(int capacity);
+
+    void setNull(int row) {
+      if (nulls == null) {
+        nulls = new BitSet();
+      }
+      nulls.set(row);
+    }
+  }
+
+  private static final class LongColumn extends Column {
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      values[row] = rs.getLong(columnIndex);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class IntColumn extends Column {
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      values[row] = rs.getInt(columnIndex);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      values[row] = rs.getDouble(columnIndex);
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+}
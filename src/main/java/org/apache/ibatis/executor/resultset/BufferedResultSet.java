@@ -0,0 +1,384 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+/**
+ * A forward only, read only {@link ResultSet} over rows that were read ahead from another result set, so that the rows
+ * can be mapped by another thread while the driver is still being read.
+ * <p>
+ * The column values are read with {@link ResultSet#getObject(int)}, large objects are read into memory, and the
+ * getters convert the values the way the drivers commonly do.
+ * </p>
+ */
+final class BufferedResultSet implements InvocationHandler {
+
+  private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+
+  static {
+    PRIMITIVE_DEFAULTS.put(boolean.class, Boolean.FALSE);
+    PRIMITIVE_DEFAULTS.put(byte.class, (byte) 0);
+    PRIMITIVE_DEFAULTS.put(short.class, (short) 0);
+    PRIMITIVE_DEFAULTS.put(int.class, 0);
+    PRIMITIVE_DEFAULTS.put(long.class, 0L);
+    PRIMITIVE_DEFAULTS.put(float.class, 0F);
+    PRIMITIVE_DEFAULTS.put(double.class, 0D);
+  }
+
+  private final Columns columns;
+  private final List<Object[]> rows;
+  private int rowIndex = -1;
+  private boolean wasNull;
+  private boolean closed;
+
+  private BufferedResultSet(Columns columns, List<Object[]> rows) {
+    this.columns = columns;
+    this.rows = rows;
+  }
+
+  static ResultSet newInstance(Columns columns, List<Object[]> rows) {
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+        new BufferedResultSet(columns, rows));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "next":
+        if (rowIndex < rows.size()) {
+          rowIndex++;
+        }
+        return rowIndex < rows.size();
+      case "wasNull":
+        return wasNull;
+      case "findColumn":
+        return columns.findColumn((String) args[0]);
+      case "getMetaData":
+        return columns.metaData;
+      case "getType":
+        return ResultSet.TYPE_FORWARD_ONLY;
+      case "getConcurrency":
+        return ResultSet.CONCUR_READ_ONLY;
+      case "getStatement":
+      case "getWarnings":
+      case "clearWarnings":
+        return null;
+      case "close":
+        closed = true;
+        return null;
+      case "isClosed":
+        return closed;
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      case "toString":
+        return "BufferedResultSet[" + rows.size() + " rows]";
+      default:
+        if (isColumnGetter(method, args)) {
+          return getColumnValue(method, args);
+        }
+        throw new SQLFeatureNotSupportedException("The method '" + method.getName() + "' is not supported by a buffered result set.");
+    }
+  }
+
+  private boolean isColumnGetter(Method method, Object[] args) {
+    return method.getName().startsWith("get") && args != null
+        && (args[0] instanceof Integer || args[0] instanceof String);
+  }
+
+  private Object getColumnValue(Method method, Object[] args) throws SQLException {
+    if (closed) {
+      throw new SQLException("The result set is closed.");
+    }
+    if (rowIndex < 0 || rowIndex >= rows.size()) {
+      throw new SQLException("The result set is not positioned on a row.");
+    }
+    int column = args[0] instanceof Integer ? (Integer) args[0] : columns.findColumn((String) args[0]);
+    if (column < 1 || column > columns.count) {
+      throw new SQLException("Invalid column index: " + column);
+    }
+    Object value = rows.get(rowIndex)[column - 1];
+    wasNull = value == null;
+    Class<?> type = method.getReturnType();
+    if ("getObject".equals(method.getName())) {
+      if (args.length == 1) {
+        return value;
+      }
+      if (args[1] instanceof Class) {
+        type = (Class<?>) args[1];
+      } else {
+        throw new SQLFeatureNotSupportedException("The method 'getObject(" + args[0] + ", Map)' is not supported by a buffered result set.");
+      }
+    }
+    if (value == null) {
+      return PRIMITIVE_DEFAULTS.get(type);
+    }
+    if ("getAsciiStream".equals(method.getName()) && value instanceof String) {
+      return new ByteArrayInputStream(((String) value).getBytes(StandardCharsets.US_ASCII));
+    }
+    return convert(value, type);
+  }
+
+  private static Object convert(Object value, Class<?> type) throws SQLException {
+    if (type.isInstance(value)) {
+      return value;
+    }
+    try {
+      if (type == String.class) {
+        return value.toString();
+      } else if (type == boolean.class || type == Boolean.class) {
+        return toBoolean(value);
+      } else if (type == int.class || type == Integer.class) {
+        return toNumber(value).intValue();
+      } else if (type == long.class || type == Long.class) {
+        return toNumber(value).longValue();
+      } else if (type == short.class || type == Short.class) {
+        return toNumber(value).shortValue();
+      } else if (type == byte.class || type == Byte.class) {
+        return toNumber(value).byteValue();
+      } else if (type == float.class || type == Float.class) {
+        return toNumber(value).floatValue();
+      } else if (type == double.class || type == Double.class) {
+        return toNumber(value).doubleValue();
+      } else if (type == BigDecimal.class) {
+        Number number = toNumber(value);
+        return number instanceof BigDecimal ? number : new BigDecimal(number.toString());
+      } else if (type == Clob.class && value instanceof String) {
+        return new SerialClob(((String) value).toCharArray());
+      } else if (type == Blob.class && value instanceof byte[]) {
+        return new SerialBlob((byte[]) value);
+      } else if (type == Reader.class && value instanceof String) {
+        return new StringReader((String) value);
+      } else if (type == InputStream.class && value instanceof byte[]) {
+        return new ByteArrayInputStream((byte[]) value);
+      } else if (isTemporal(type) && isTemporal(value.getClass())) {
+        return toTemporal(value, type);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new SQLException("Cannot convert the value '" + value + "' to " + type.getName() + ". Cause: " + e, e);
+    }
+    throw new SQLException("Cannot convert a value of " + value.getClass().getName() + " to " + type.getName() + ".");
+  }
+
+  private static Boolean toBoolean(Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).intValue() != 0;
+    }
+    String string = value.toString().trim();
+    return "1".equals(string) || "true".equalsIgnoreCase(string);
+  }
+
+  private static Number toNumber(Object value) {
+    if (value instanceof Number) {
+      return (Number) value;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value ? 1 : 0;
+    }
+    return new BigDecimal(value.toString().trim());
+  }
+
+  private static boolean isTemporal(Class<?> type) {
+    return java.util.Date.class.isAssignableFrom(type) || type == LocalDate.class || type == LocalDateTime.class
+        || type == LocalTime.class || type == OffsetDateTime.class || type == OffsetTime.class
+        || type == ZonedDateTime.class;
+  }
+
+  private static Object toTemporal(Object value, Class<?> type) {
+    if (type == OffsetTime.class && value instanceof OffsetTime) {
+      return value;
+    }
+    OffsetDateTime offsetDateTime = null;
+    LocalDateTime localDateTime;
+    if (value instanceof OffsetDateTime) {
+      offsetDateTime = (OffsetDateTime) value;
+      localDateTime = offsetDateTime.toLocalDateTime();
+    } else if (value instanceof ZonedDateTime) {
+      offsetDateTime = ((ZonedDateTime) value).toOffsetDateTime();
+      localDateTime = offsetDateTime.toLocalDateTime();
+    } else if (value instanceof OffsetTime) {
+      offsetDateTime = ((OffsetTime) value).atDate(LocalDate.of(1970, 1, 1));
+      localDateTime = offsetDateTime.toLocalDateTime();
+    } else if (value instanceof LocalDateTime) {
+      localDateTime = (LocalDateTime) value;
+    } else if (value instanceof LocalDate) {
+      localDateTime = ((LocalDate) value).atStartOfDay();
+    } else if (value instanceof LocalTime) {
+      localDateTime = ((LocalTime) value).atDate(LocalDate.of(1970, 1, 1));
+    } else if (value instanceof Date) {
+      localDateTime = ((Date) value).toLocalDate().atStartOfDay();
+    } else if (value instanceof Time) {
+      localDateTime = ((Time) value).toLocalTime().atDate(LocalDate.of(1970, 1, 1));
+    } else if (value instanceof Timestamp) {
+      localDateTime = ((Timestamp) value).toLocalDateTime();
+    } else {
+      localDateTime = new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+    }
+    if (offsetDateTime == null) {
+      offsetDateTime = localDateTime.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+    if (type == Timestamp.class || type == java.util.Date.class) {
+      return Timestamp.valueOf(localDateTime);
+    } else if (type == Date.class) {
+      return Date.valueOf(localDateTime.toLocalDate());
+    } else if (type == Time.class) {
+      return Time.valueOf(localDateTime.toLocalTime());
+    } else if (type == LocalDateTime.class) {
+      return localDateTime;
+    } else if (type == LocalDate.class) {
+      return localDateTime.toLocalDate();
+    } else if (type == LocalTime.class) {
+      return localDateTime.toLocalTime();
+    } else if (type == OffsetDateTime.class) {
+      return offsetDateTime;
+    } else if (type == ZonedDateTime.class) {
+      return offsetDateTime.toZonedDateTime();
+    } else if (type == OffsetTime.class) {
+      return offsetDateTime.toOffsetTime();
+    }
+    throw new IllegalArgumentException("Unsupported temporal type " + type.getName());
+  }
+
+  /**
+   * The column layout of the result set the rows were read from, shared by all the batches of a result set.
+   */
+  static final class Columns implements InvocationHandler {
+
+    private final int count;
+    private final String[] labels;
+    private final String[] names;
+    private final int[] types;
+    private final String[] typeNames;
+    private final String[] classNames;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final ResultSetMetaData metaData;
+
+    Columns(ResultSetMetaData source) throws SQLException {
+      count = source.getColumnCount();
+      labels = new String[count];
+      names = new String[count];
+      types = new int[count];
+      typeNames = new String[count];
+      classNames = new String[count];
+      for (int i = 0; i < count; i++) {
+        labels[i] = source.getColumnLabel(i + 1);
+        names[i] = source.getColumnName(i + 1);
+        types[i] = source.getColumnType(i + 1);
+        typeNames[i] = source.getColumnTypeName(i + 1);
+        classNames[i] = source.getColumnClassName(i + 1);
+      }
+      for (int i = count - 1; i >= 0; i--) {
+        if (names[i] != null) {
+          indexes.put(names[i].toUpperCase(Locale.ENGLISH), i + 1);
+        }
+      }
+      for (int i = count - 1; i >= 0; i--) {
+        if (labels[i] != null) {
+          indexes.put(labels[i].toUpperCase(Locale.ENGLISH), i + 1);
+        }
+      }
+      metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+          new Class<?>[] {ResultSetMetaData.class}, this);
+    }
+
+    /**
+     * Reads the values of the current row of the result set.
+     */
+    Object[] read(ResultSet rs) throws SQLException {
+      Object[] row = new Object[count];
+      for (int i = 0; i < count; i++) {
+        Object value = rs.getObject(i + 1);
+        if (value instanceof Clob) {
+          Clob clob = (Clob) value;
+          value = clob.getSubString(1, (int) clob.length());
+        } else if (value instanceof Blob) {
+          Blob blob = (Blob) value;
+          value = blob.getBytes(1, (int) blob.length());
+        }
+        row[i] = value;
+      }
+      return row;
+    }
+
+    int findColumn(String columnLabel) throws SQLException {
+      Integer index = columnLabel == null ? null : indexes.get(columnLabel.toUpperCase(Locale.ENGLISH));
+      if (index == null) {
+        throw new SQLException("Column '" + columnLabel + "' not found.");
+      }
+      return index;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "getColumnCount":
+          return count;
+        case "getColumnLabel":
+          return labels[(Integer) args[0] - 1];
+        case "getColumnName":
+          return names[(Integer) args[0] - 1];
+        case "getColumnType":
+          return types[(Integer) args[0] - 1];
+        case "getColumnTypeName":
+          return typeNames[(Integer) args[0] - 1];
+        case "getColumnClassName":
+          return classNames[(Integer) args[0] - 1];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        case "toString":
+          return "BufferedResultSet.Columns" + Arrays.toString(labels);
+        default:
+          throw new SQLFeatureNotSupportedException("The method '" + method.getName() + "' is not supported by a buffered result set.");
+      }
+    }
+  }
+
+}
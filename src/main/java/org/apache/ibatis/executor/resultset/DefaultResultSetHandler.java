@@ -18,30 +18,43 @@ package org.apache.ibatis.executor.resultset;
 import java.lang.reflect.Constructor;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CompactCacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnarResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.resultset.MappingStatistics.Phase;
+import org.apache.ibatis.executor.resultset.RowMappingPlan.UnMappedColumnAutoMapping;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -72,6 +85,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
 
+  // large objects report huge or unknown display sizes
+  private static final int MAX_ESTIMATED_COLUMN_WIDTH = 4096;
+
   private final Executor executor;
   private final Configuration configuration;
   private final MappedStatement mappedStatement;
@@ -82,39 +98,60 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final boolean useColumnIndex;
+  // null unless the mappingStatisticsEnabled setting is on
+  private final MappingStatistics mappingStatistics;
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  // resultOrdered: the parent being built, recognized by comparing the key values of the next rows
+  private ResultMap orderedParentResultMap;
+  private Object[] orderedParentKeyValues;
+  private CacheKey orderedParentRowKey;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
 
-  // Cached Automappings
-  private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  // the last row mapping plan used, rows of a same result map usually follow each other
+  private ResultSetWrapper lastPlanResultSet;
+  private ResultMap lastPlanResultMap;
+  private String lastPlanColumnPrefix;
+  private RowMappingPlan lastPlan;
+  private final Map<PlanReference, RowMappingPlan> rowMappingPlans = new HashMap<>();
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
-  private static class PendingRelation {
-    public MetaObject metaObject;
-    public ResultMapping propertyMapping;
-  }
+  private static final class PlanReference {
+    private final ResultMap resultMap;
+    private final String columnPrefix;
 
-  private static class UnMappedColumnAutoMapping {
-    private final String column;
-    private final String property;
-    private final TypeHandler<?> typeHandler;
-    private final boolean primitive;
+    PlanReference(ResultMap resultMap, String columnPrefix) {
+      this.resultMap = resultMap;
+      this.columnPrefix = columnPrefix;
+    }
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
-      this.column = column;
-      this.property = property;
-      this.typeHandler = typeHandler;
-      this.primitive = primitive;
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof PlanReference)) {
+        return false;
+      }
+      PlanReference other = (PlanReference) o;
+      return resultMap == other.resultMap && Objects.equals(columnPrefix, other.columnPrefix);
     }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(resultMap) + Objects.hashCode(columnPrefix);
+    }
+  }
+
+  private static class PendingRelation {
+    public MetaObject metaObject;
+    public ResultMapping propertyMapping;
   }
 
   public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
@@ -128,7 +165,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
+    this.useColumnIndex = configuration.isUseColumnIndex();
     this.resultHandler = resultHandler;
+    this.mappingStatistics = configuration.isMappingStatisticsEnabled() ? configuration.getMappingStatistics(mappedStatement.getId()) : null;
   }
 
   //
@@ -181,10 +220,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
+    final long start = startTimer();
+    final long allocatedBytes = mappingStatistics == null ? -1 : MappingStatistics.currentThreadAllocatedBytes();
     final List<Object> multipleResults = new ArrayList<>();
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
+    if (rsw != null && resultHandler != null) {
+      growFetchSize(rsw.getResultSet());
+    }
 
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
     int resultMapCount = resultMaps.size();
@@ -212,6 +256,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    if (mappingStatistics != null) {
+      mappingStatistics.recordExecution(System.nanoTime() - start,
+          allocatedBytes < 0 ? -1 : MappingStatistics.currentThreadAllocatedBytes() - allocatedBytes);
+    }
     return collapseSingleResultList(multipleResults);
   }
 
@@ -220,6 +268,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
 
     ResultSetWrapper rsw = getFirstResultSet(stmt);
+    if (rsw != null) {
+      growFetchSize(rsw.getResultSet());
+    }
 
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
 
@@ -230,7 +281,42 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    if (mappingStatistics != null) {
+      // the rows are mapped while the cursor is iterated, only their phases are timed
+      mappingStatistics.recordExecution(0, -1);
+    }
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    int prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      cursor = new PrefetchingCursor<>(cursor, prefetchSize, configuration.getCursorPrefetchExecutor());
+    }
+    return cursor;
+  }
+
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> checkedResultMapIds) {
+    if (!checkedResultMapIds.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      String nestedResultMapId = resultMapping.getNestedResultMapId();
+      if (nestedResultMapId != null && configuration.hasResultMap(nestedResultMapId)
+          && hasNestedQueries(configuration.getResultMap(nestedResultMapId), checkedResultMapIds)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (configuration.hasResultMap(caseResultMapId)
+            && hasNestedQueries(configuration.getResultMap(caseResultMapId), checkedResultMapIds)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -250,6 +336,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rs != null ? new ResultSetWrapper(rs, configuration) : null;
   }
 
+  /**
+   * Grows the fetch size of a streamed result set to the number of rows that fit in the fetch buffer, estimating the
+   * width of a row from the display sizes of its columns.
+   */
+  private void growFetchSize(ResultSet rs) throws SQLException {
+    Integer fetchBufferSize = configuration.getFetchBufferSize();
+    if (fetchBufferSize == null || rs.getFetchSize() <= 0) {
+      // not set, or the driver streams the rows one by one
+      return;
+    }
+    ResultSetMetaData metaData = rs.getMetaData();
+    long rowWidth = 0;
+    for (int i = 1, n = metaData.getColumnCount(); i <= n; i++) {
+      int displaySize = metaData.getColumnDisplaySize(i);
+      rowWidth += displaySize > 0 ? Math.min(displaySize, MAX_ESTIMATED_COLUMN_WIDTH) : MAX_ESTIMATED_COLUMN_WIDTH;
+    }
+    long fetchSize = fetchBufferSize / Math.max(rowWidth, 1);
+    if (fetchSize > rs.getFetchSize()) {
+      rs.setFetchSize((int) Math.min(fetchSize, Integer.MAX_VALUE));
+    }
+  }
+
   private ResultSetWrapper getNextResultSet(Statement stmt) {
     // Making this method tolerant of bad JDBC drivers
     try {
@@ -298,10 +406,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       } else {
         if (resultHandler == null) {
           DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
-          handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+          handleRowValuesForResults(rsw, resultMap, defaultResultHandler);
           multipleResults.add(defaultResultHandler.getResultList());
         } else {
-          handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
+          handleRowValuesForResults(rsw, resultMap, resultHandler);
         }
       }
     } finally {
@@ -320,7 +428,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (resultHandler instanceof ColumnarResultHandler && parentMapping == null) {
+      handleRowValuesForColumns(rsw, (ColumnarResultHandler) resultHandler, rowBounds);
+    } else if (resultMap.hasNestedResultMaps()) {
       ensureNoRowBounds();
       checkResultHandler();
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
@@ -349,13 +459,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && fetchRow(resultSet)) {
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
   }
 
+  private void handleRowValuesForColumns(ResultSetWrapper rsw, ColumnarResultHandler resultHandler, RowBounds rowBounds) throws SQLException {
+    if (rsw.getColumnNames().size() < resultHandler.getColumnCount()) {
+      throw new ExecutorException("The columnar result handler expects " + resultHandler.getColumnCount()
+          + " columns but the statement '" + mappedStatement.getId() + "' returns " + rsw.getColumnNames().size() + ".");
+    }
+    DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+    ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && fetchRow(resultSet)) {
+      resultHandler.handleRow(resultSet);
+      // counts the rows for the row bounds
+      resultContext.nextResultObject(null);
+    }
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -388,20 +513,172 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  private boolean fetchRow(ResultSet resultSet) throws SQLException {
+    if (mappingStatistics == null) {
+      return resultSet.next();
+    }
+    final long start = System.nanoTime();
+    final boolean hasRow = resultSet.next();
+    mappingStatistics.recordPhase(Phase.FETCH, System.nanoTime() - start);
+    if (hasRow) {
+      mappingStatistics.recordRow();
+    }
+    return hasRow;
+  }
+
+  private long startTimer() {
+    return mappingStatistics == null ? 0 : System.nanoTime();
+  }
+
+  private void stopTimer(Phase phase, long start) {
+    if (mappingStatistics != null) {
+      mappingStatistics.recordPhase(phase, System.nanoTime() - start);
+    }
+  }
+
+  //
+  // HANDLE ROWS IN PARALLEL
+  //
+
+  private void handleRowValuesForResults(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler) throws SQLException {
+    if (mappedStatement.isParallelMapping() && !(resultHandler instanceof ColumnarResultHandler)
+        && isParallelMappable(resultMap, new HashSet<>())) {
+      handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds);
+    } else {
+      handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
+    }
+  }
+
+  private boolean isParallelMappable(ResultMap resultMap, Set<String> checkedResultMapIds) {
+    if (!checkedResultMapIds.add(resultMap.getId())) {
+      return true;
+    }
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()) {
+      return false;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      if (resultMapping.getResultSet() != null) {
+        return false;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (!configuration.hasResultMap(caseResultMapId)
+            || !isParallelMappable(configuration.getResultMap(caseResultMapId), checkedResultMapIds)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private void handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds)
+      throws SQLException {
+    final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+    final ResultSet resultSet = rsw.getResultSet();
+    final BufferedResultSet.Columns columns = new BufferedResultSet.Columns(resultSet.getMetaData());
+    final ExecutorService mappingExecutor = configuration.getParallelMappingExecutor();
+    final int batchSize = Math.max(1, configuration.getParallelMappingBatchSize());
+    // bounds the rows held in memory when the workers are slower than the driver
+    final int maxPendingBatches = Runtime.getRuntime().availableProcessors() * 2;
+    final Deque<Future<List<Object>>> pendingBatches = new ArrayDeque<>();
+    try {
+      skipRows(resultSet, rowBounds);
+      int rowCount = 0;
+      List<Object[]> rows = new ArrayList<>(batchSize);
+      while (!resultContext.isStopped() && rowCount < rowBounds.getLimit() && !resultSet.isClosed() && fetchRow(resultSet)) {
+        rows.add(columns.read(resultSet));
+        rowCount++;
+        if (rows.size() == batchSize) {
+          pendingBatches.add(submitBatch(mappingExecutor, columns, rows, resultMap));
+          rows = new ArrayList<>(batchSize);
+          while (pendingBatches.size() > maxPendingBatches) {
+            storeBatch(pendingBatches.poll(), resultHandler, resultContext);
+          }
+        }
+      }
+      if (!rows.isEmpty() && !resultContext.isStopped()) {
+        pendingBatches.add(submitBatch(mappingExecutor, columns, rows, resultMap));
+      }
+      while (!pendingBatches.isEmpty()) {
+        storeBatch(pendingBatches.poll(), resultHandler, resultContext);
+      }
+    } finally {
+      for (Future<List<Object>> pendingBatch : pendingBatches) {
+        pendingBatch.cancel(false);
+      }
+    }
+  }
+
+  private Future<List<Object>> submitBatch(ExecutorService mappingExecutor, BufferedResultSet.Columns columns, List<Object[]> rows,
+      ResultMap resultMap) {
+    // each batch gets its own handler as the handler keeps per result set state
+    final DefaultResultSetHandler batchHandler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, null, boundSql, rowBounds);
+    return mappingExecutor.submit(() -> batchHandler.mapBufferedRows(columns, rows, resultMap));
+  }
+
+  private List<Object> mapBufferedRows(BufferedResultSet.Columns columns, List<Object[]> rows, ResultMap resultMap) throws SQLException {
+    final ResultSetWrapper rsw = new ResultSetWrapper(BufferedResultSet.newInstance(columns, rows), configuration);
+    final ResultSet resultSet = rsw.getResultSet();
+    final List<Object> rowValues = new ArrayList<>(rows.size());
+    while (resultSet.next()) {
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+      rowValues.add(getRowValue(rsw, discriminatedResultMap, null));
+    }
+    return rowValues;
+  }
+
+  private void storeBatch(Future<List<Object>> batch, ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext)
+      throws SQLException {
+    for (Object rowValue : awaitBatch(batch)) {
+      if (resultContext.isStopped()) {
+        break;
+      }
+      callResultHandler(resultHandler, resultContext, rowValue);
+    }
+  }
+
+  private List<Object> awaitBatch(Future<List<Object>> batch) throws SQLException {
+    try {
+      return batch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for the rows to be mapped.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ExecutorException("Error mapping the rows in parallel. Cause: " + cause, cause);
+    }
+  }
+
   //
   // GET VALUE FROM ROW FOR SIMPLE RESULT MAP
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
+    long start = startTimer();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
+    stopTimer(Phase.CREATE_RESULT_OBJECT, start);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
       final MetaObject metaObject = configuration.newMetaObject(rowValue);
       boolean foundValues = this.useConstructorMappings;
+      final RowMappingPlan plan = getRowMappingPlan(rsw, resultMap, columnPrefix);
       if (shouldApplyAutomaticMappings(resultMap, false)) {
-        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+        start = startTimer();
+        foundValues = applyAutomaticMappings(rsw, resultMap, plan, metaObject, columnPrefix) || foundValues;
+        stopTimer(Phase.AUTOMATIC_MAPPING, start);
       }
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
+      start = startTimer();
+      foundValues = applyPropertyMappings(rsw, plan, metaObject, lazyLoader, columnPrefix) || foundValues;
+      stopTimer(Phase.PROPERTY_MAPPING, start);
       foundValues = lazyLoader.size() > 0 || foundValues;
       rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
     }
@@ -421,15 +698,40 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   //
-  // PROPERTY MAPPINGS
+  // ROW MAPPING PLAN
   //
 
-  private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  private RowMappingPlan getRowMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (rsw == lastPlanResultSet && resultMap == lastPlanResultMap && Objects.equals(columnPrefix, lastPlanColumnPrefix)) {
+      return lastPlan;
+    }
+    if (rsw != lastPlanResultSet) {
+      rowMappingPlans.clear();
+    }
+    // nested result maps alternate with their parent on every row
+    final PlanReference reference = new PlanReference(resultMap, columnPrefix);
+    RowMappingPlan plan = rowMappingPlans.get(reference);
+    if (plan == null) {
+      RowMappingPlan.Key key = new RowMappingPlan.Key(columnPrefix, rsw.getColumnSignature(),
+          configuration.isMapUnderscoreToCamelCase(), configuration.getAutoMappingUnknownColumnBehavior());
+      plan = resultMap.getRowMappingPlan(key);
+      if (plan == null) {
+        plan = createRowMappingPlan(rsw, resultMap, columnPrefix);
+        resultMap.addRowMappingPlan(key, plan);
+      }
+      rowMappingPlans.put(reference, plan);
+    }
+    lastPlanResultSet = rsw;
+    lastPlanResultMap = resultMap;
+    lastPlanColumnPrefix = columnPrefix;
+    lastPlan = plan;
+    return plan;
+  }
+
+  private RowMappingPlan createRowMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
-    boolean foundValues = false;
-    final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
+    final List<RowMappingPlan.PropertyMapping> propertyMappings = new ArrayList<>();
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
       String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       if (propertyMapping.getNestedResultMapId() != null) {
         // the user added a column attribute to a nested result map, ignore it
@@ -438,29 +740,46 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
           || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
-        // issue #541 make property optional
-        final String property = propertyMapping.getProperty();
-        if (property == null) {
-          continue;
-        } else if (value == DEFERRED) {
-          foundValues = true;
-          continue;
-        }
-        if (value != null) {
-          foundValues = true;
-        }
-        if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
-          // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
-        }
+        propertyMappings.add(new RowMappingPlan.PropertyMapping(propertyMapping, column, column == null ? 0 : rsw.getColumnIndex(column)));
       }
     }
-    return foundValues;
+    final List<RowMappingPlan.RowKeyColumn> rowKeyColumns = new ArrayList<>();
+    createRowKeyColumns(rsw, resultMap, getResultMappingsForRowKey(resultMap), columnPrefix, rowKeyColumns);
+    return new RowMappingPlan(propertyMappings.toArray(new RowMappingPlan.PropertyMapping[0]),
+        rowKeyColumns.toArray(new RowMappingPlan.RowKeyColumn[0]));
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  //
+  // PROPERTY MAPPINGS
+  //
+
+  private boolean applyPropertyMappings(ResultSetWrapper rsw, RowMappingPlan plan, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
+    boolean foundValues = false;
+    for (RowMappingPlan.PropertyMapping mapping : plan.getPropertyMappings()) {
+      final ResultMapping propertyMapping = mapping.resultMapping;
+      Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, mapping, columnPrefix);
+      // issue #541 make property optional
+      final String property = propertyMapping.getProperty();
+      if (property == null) {
+        continue;
+      } else if (value == DEFERRED) {
+        foundValues = true;
+        continue;
+      }
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        mapping.setter.setValue(metaObject, value);
+      }
+    }
+    return foundValues;
+  }
+
+  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader,
+      RowMappingPlan.PropertyMapping mapping, String columnPrefix) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
@@ -468,63 +787,65 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return DEFERRED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return useColumnIndex && mapping.columnIndex > 0
+          ? typeHandler.getResult(rs, mapping.columnIndex) : typeHandler.getResult(rs, mapping.column);
     }
   }
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
-    final String mapKey = resultMap.getId() + ":" + columnPrefix;
-    List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
-    if (autoMapping == null) {
-      autoMapping = new ArrayList<>();
-      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-      for (String columnName : unmappedColumnNames) {
-        String propertyName = columnName;
-        if (columnPrefix != null && !columnPrefix.isEmpty()) {
-          // When columnPrefix is specified,
-          // ignore columns without the prefix.
-          if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-            propertyName = columnName.substring(columnPrefix.length());
-          } else {
-            continue;
-          }
+    final List<UnMappedColumnAutoMapping> autoMapping = new ArrayList<>();
+    final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    for (String columnName : unmappedColumnNames) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        // When columnPrefix is specified,
+        // ignore columns without the prefix.
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
         }
-        final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-        if (property != null && metaObject.hasSetter(property)) {
-          if (resultMap.getMappedProperties().contains(property)) {
-            continue;
-          }
-          final Class<?> propertyType = metaObject.getSetterType(property);
-          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-            final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-          } else {
-            configuration.getAutoMappingUnknownColumnBehavior()
-                .doAction(mappedStatement, columnName, property, propertyType);
-          }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
+          autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
         } else {
           configuration.getAutoMappingUnknownColumnBehavior()
-              .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+              .doAction(mappedStatement, columnName, property, propertyType);
         }
+      } else {
+        configuration.getAutoMappingUnknownColumnBehavior()
+            .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
       }
-      autoMappingsCache.put(mapKey, autoMapping);
     }
     return autoMapping;
   }
 
-  private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
-    List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
+  private boolean applyAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, RowMappingPlan plan, MetaObject metaObject, String columnPrefix) throws SQLException {
+    final Class<?> resultType = metaObject.getOriginalObject().getClass();
+    List<UnMappedColumnAutoMapping> autoMapping = plan.getAutoMappings(resultType);
+    if (autoMapping == null) {
+      autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
+      plan.setAutoMappings(resultType, autoMapping);
+    }
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = useColumnIndex && mapping.columnIndex > 0
+            ? mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex)
+            : mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
         if (value != null) {
           foundValues = true;
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !mapping.primitive)) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(mapping.property, value);
+          mapping.setter.setValue(metaObject, value);
         }
       }
     }
@@ -855,18 +1176,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && fetchRow(resultSet)) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
-      Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
-        if (partialObject == null && rowValue != null) {
+        // only the current parent and its children are kept, the parent is stored as soon as its key changes
+        final boolean sameParent = isSameOrderedParent(rsw, discriminatedResultMap) && rowValue != null;
+        if (!sameParent && rowValue != null) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
-        rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
+        rowValue = getRowValue(rsw, discriminatedResultMap, orderedParentRowKey, null, sameParent ? rowValue : null);
       } else {
+        final long rowKeyStart = startTimer();
+        final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+        stopTimer(Phase.ROW_KEY, rowKeyStart);
+        Object partialObject = nestedResultObjects.get(rowKey);
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
         if (partialObject == null) {
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -881,6 +1206,37 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  private boolean isSameOrderedParent(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final boolean sameResultMap = resultMap == orderedParentResultMap;
+    orderedParentResultMap = resultMap;
+    if (getResultMappingsForRowKey(resultMap).isEmpty()) {
+      final long rowKeyStart = startTimer();
+      final CacheKey rowKey = createRowKey(resultMap, rsw, null);
+      stopTimer(Phase.ROW_KEY, rowKeyStart);
+      final boolean same = sameResultMap && rowKey != CacheKey.NULL_CACHE_KEY && rowKey.equals(orderedParentRowKey);
+      orderedParentKeyValues = null;
+      orderedParentRowKey = rowKey;
+      return same;
+    }
+    // compares the values of the key columns, the cache key is only built for a new parent
+    final RowMappingPlan.RowKeyColumn[] rowKeyColumns = getRowMappingPlan(rsw, resultMap, null).getRowKeyColumns();
+    final Object[] keyValues = new Object[rowKeyColumns.length];
+    boolean hasKey = false;
+    for (int i = 0; i < rowKeyColumns.length; i++) {
+      keyValues[i] = getRowKeyValue(rsw.getResultSet(), rowKeyColumns[i]);
+      hasKey = hasKey || keyValues[i] != null || configuration.isReturnInstanceForEmptyRow();
+    }
+    final Object[] previousKeyValues = orderedParentKeyValues;
+    orderedParentKeyValues = keyValues;
+    if (sameResultMap && hasKey && previousKeyValues != null && Arrays.deepEquals(previousKeyValues, keyValues)) {
+      return true;
+    }
+    final long rowKeyStart = startTimer();
+    orderedParentRowKey = hasKey ? createRowKey(resultMap, rsw, null) : CacheKey.NULL_CACHE_KEY;
+    stopTimer(Phase.ROW_KEY, rowKeyStart);
+    return false;
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
@@ -891,20 +1247,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (rowValue != null) {
       final MetaObject metaObject = configuration.newMetaObject(rowValue);
       putAncestor(rowValue, resultMapId);
+      final long start = startTimer();
       applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, false);
+      stopTimer(Phase.NESTED_RESULT_MAPPING, start);
       ancestorObjects.remove(resultMapId);
     } else {
       final ResultLoaderMap lazyLoader = new ResultLoaderMap();
+      long start = startTimer();
       rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
+      stopTimer(Phase.CREATE_RESULT_OBJECT, start);
       if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
         final MetaObject metaObject = configuration.newMetaObject(rowValue);
         boolean foundValues = this.useConstructorMappings;
+        final RowMappingPlan plan = getRowMappingPlan(rsw, resultMap, columnPrefix);
         if (shouldApplyAutomaticMappings(resultMap, true)) {
-          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+          start = startTimer();
+          foundValues = applyAutomaticMappings(rsw, resultMap, plan, metaObject, columnPrefix) || foundValues;
+          stopTimer(Phase.AUTOMATIC_MAPPING, start);
         }
-        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
+        start = startTimer();
+        foundValues = applyPropertyMappings(rsw, plan, metaObject, lazyLoader, columnPrefix) || foundValues;
+        stopTimer(Phase.PROPERTY_MAPPING, start);
         putAncestor(rowValue, resultMapId);
+        start = startTimer();
         foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, true) || foundValues;
+        stopTimer(Phase.NESTED_RESULT_MAPPING, start);
         ancestorObjects.remove(resultMapId);
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
@@ -943,8 +1310,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
+          final long rowKeyStart = startTimer();
           final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          stopTimer(Phase.ROW_KEY, rowKeyStart);
+          final CacheKey combinedKey;
+          if (parentRowKey == orderedParentRowKey && mappedStatement.isResultOrdered()) {
+            // only the children of the current parent are kept, they do not need its key
+            combinedKey = rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1 ? rowKey : CacheKey.NULL_CACHE_KEY;
+          } else {
+            combinedKey = combineKeys(rowKey, parentRowKey);
+          }
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1006,34 +1381,32 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
+    final CompactCacheKey.Builder cacheKey;
     if (resultMappings.isEmpty()) {
+      cacheKey = CompactCacheKey.builder(1 + 2 * rsw.getColumnNames().size());
+      cacheKey.update(resultMap.getId());
       if (Map.class.isAssignableFrom(resultMap.getType())) {
         createRowKeyForMap(rsw, cacheKey);
       } else {
         createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      final RowMappingPlan.RowKeyColumn[] rowKeyColumns = getRowMappingPlan(rsw, resultMap, columnPrefix).getRowKeyColumns();
+      cacheKey = CompactCacheKey.builder(1 + 2 * rowKeyColumns.length);
+      cacheKey.update(resultMap.getId());
+      createRowKeyForMappedProperties(rsw, cacheKey, rowKeyColumns);
     }
     if (cacheKey.getUpdateCount() < 2) {
       return CacheKey.NULL_CACHE_KEY;
     }
-    return cacheKey;
+    return cacheKey.build();
   }
 
   private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
     if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
+      // both keys are immutable and keep their hash, so they are combined without copying their components
+      return CompactCacheKey.builder(2).update(rowKey).update(parentRowKey).build();
     }
     return CacheKey.NULL_CACHE_KEY;
   }
@@ -1046,30 +1419,43 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+  private void createRowKeyForMappedProperties(ResultSetWrapper rsw, CompactCacheKey.Builder cacheKey, RowMappingPlan.RowKeyColumn[] rowKeyColumns) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    for (RowMappingPlan.RowKeyColumn rowKeyColumn : rowKeyColumns) {
+      final Object value = getRowKeyValue(rs, rowKeyColumn);
+      if (value != null || configuration.isReturnInstanceForEmptyRow()) {
+        cacheKey.update(rowKeyColumn.column);
+        cacheKey.update(value);
+      }
+    }
+  }
+
+  private Object getRowKeyValue(ResultSet rs, RowMappingPlan.RowKeyColumn rowKeyColumn) throws SQLException {
+    return useColumnIndex && rowKeyColumn.columnIndex > 0
+        ? rowKeyColumn.typeHandler.getResult(rs, rowKeyColumn.columnIndex)
+        : rowKeyColumn.typeHandler.getResult(rs, rowKeyColumn.column);
+  }
+
+  private void createRowKeyColumns(ResultSetWrapper rsw, ResultMap resultMap, List<ResultMapping> resultMappings, String columnPrefix,
+      List<RowMappingPlan.RowKeyColumn> rowKeyColumns) throws SQLException {
     for (ResultMapping resultMapping : resultMappings) {
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
-            prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
+        createRowKeyColumns(rsw, nestedResultMap, nestedResultMap.getConstructorResultMappings(),
+            prependPrefix(resultMapping.getColumnPrefix(), columnPrefix), rowKeyColumns);
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
-          }
+          rowKeyColumns.add(new RowMappingPlan.RowKeyColumn(column, rsw.getColumnIndex(column), resultMapping.getTypeHandler()));
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CompactCacheKey.Builder cacheKey, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1092,10 +1478,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, CompactCacheKey.Builder cacheKey) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
+    for (int i = 0; i < columnNames.size(); i++) {
+      final String columnName = columnNames.get(i);
+      final String value = useColumnIndex ? rsw.getResultSet().getString(i + 1) : rsw.getResultSet().getString(columnName);
       if (value != null) {
         cacheKey.update(columnName);
         cacheKey.update(value);
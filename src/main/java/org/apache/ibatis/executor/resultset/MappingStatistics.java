@@ -0,0 +1,285 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures where the mapping of the results of a statement spends its time. The statistics of a statement are
+ * recorded by <code>DefaultResultSetHandler</code> when the <code>mappingStatisticsEnabled</code> setting is on, see
+ * {@link org.apache.ibatis.session.Configuration#getMappingStatistics(String)}.
+ * <p>
+ * Phases are timed where they are called, so the time of a phase includes the phases it calls: the nested result
+ * mappings of a row include the creation of the nested objects and of their row keys. The allocated bytes are those
+ * of the thread handling the result sets, as reported by the JVM when it supports it; rows mapped by the workers of
+ * a <code>parallelMapping</code> statement and the rows of cursors are not included. All counters are updated without
+ * locking.
+ *
+ * @since 3.5.4
+ */
+public class MappingStatistics {
+
+  /**
+   * The timed steps of the mapping of a result set.
+   */
+  public enum Phase {
+    /** Moving to the next row of the result set, i.e. the JDBC fetch. */
+    FETCH,
+    /** Instantiating a result object, including the constructor arguments read from the row. */
+    CREATE_RESULT_OBJECT,
+    /** Reading and setting the auto-mapped columns. */
+    AUTOMATIC_MAPPING,
+    /** Reading and setting the columns of the explicit property mappings. */
+    PROPERTY_MAPPING,
+    /** Mapping the nested result maps of a row. */
+    NESTED_RESULT_MAPPING,
+    /** Building the keys that identify the rows of nested result maps. */
+    ROW_KEY
+  }
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+  private static final Method GET_THREAD_ALLOCATED_BYTES = resolveThreadAllocatedBytesMethod();
+
+  private final String id;
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder totalTime = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder[] phaseCounts = newAdders();
+  private final LongAdder[] phaseTimes = newAdders();
+
+  public MappingStatistics(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Records the handling of the result sets of one execution of the statement.
+   *
+   * @param nanos the time the handling took in nanoseconds, 0 when not measured, e.g. for cursors
+   * @param bytes the bytes allocated by the handling thread, negative when unknown
+   */
+  public void recordExecution(long nanos, long bytes) {
+    executions.increment();
+    totalTime.add(nanos);
+    if (bytes > 0) {
+      allocatedBytes.add(bytes);
+    }
+  }
+
+  public void recordRow() {
+    rows.increment();
+  }
+
+  /**
+   * Records one run of a mapping phase.
+   *
+   * @param phase the phase
+   * @param nanos the time it took in nanoseconds
+   */
+  public void recordPhase(Phase phase, long nanos) {
+    phaseCounts[phase.ordinal()].increment();
+    phaseTimes[phase.ordinal()].add(nanos);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public long getExecutionCount() {
+    return executions.sum();
+  }
+
+  public long getRowCount() {
+    return rows.sum();
+  }
+
+  /**
+   * Gets the time spent handling the result sets, from the first fetch to the last mapped row.
+   *
+   * @return the time in nanoseconds
+   */
+  public long getTotalTime() {
+    return totalTime.sum();
+  }
+
+  /**
+   * Gets the bytes allocated while handling the result sets.
+   *
+   * @return the bytes, 0 when the JVM cannot measure them
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  public long getPhaseCount(Phase phase) {
+    return phaseCounts[phase.ordinal()].sum();
+  }
+
+  /**
+   * Gets the time spent in a phase.
+   *
+   * @param phase the phase
+   * @return the time in nanoseconds
+   */
+  public long getPhaseTime(Phase phase) {
+    return phaseTimes[phase.ordinal()].sum();
+  }
+
+  /**
+   * Resets all counters. Events recorded concurrently may be partially lost.
+   */
+  public void reset() {
+    executions.reset();
+    rows.reset();
+    totalTime.reset();
+    allocatedBytes.reset();
+    for (Phase phase : Phase.values()) {
+      phaseCounts[phase.ordinal()].reset();
+      phaseTimes[phase.ordinal()].reset();
+    }
+  }
+
+  /**
+   * Takes a consistent-enough copy of the counters, e.g. to compare it with a later one.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  /**
+   * Gets the bytes allocated so far by the current thread.
+   *
+   * @return the bytes, or -1 if the JVM cannot measure them
+   */
+  static long currentThreadAllocatedBytes() {
+    if (GET_THREAD_ALLOCATED_BYTES == null) {
+      return -1;
+    }
+    try {
+      return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+
+  private static Method resolveThreadAllocatedBytesMethod() {
+    try {
+      // a HotSpot extension, looked up reflectively as it is not part of the Java SE API
+      Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+      if (!type.isInstance(THREAD_MX_BEAN)
+          || !(Boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(THREAD_MX_BEAN)
+          || !(Boolean) type.getMethod("isThreadAllocatedMemoryEnabled").invoke(THREAD_MX_BEAN)) {
+        return null;
+      }
+      return type.getMethod("getThreadAllocatedBytes", long.class);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static LongAdder[] newAdders() {
+    LongAdder[] adders = new LongAdder[Phase.values().length];
+    for (int i = 0; i < adders.length; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  /**
+   * An immutable copy of the counters of a {@link MappingStatistics}.
+   */
+  public static final class Snapshot {
+
+    private final String id;
+    private final long executionCount;
+    private final long rowCount;
+    private final long totalTime;
+    private final long allocatedBytes;
+    private final Map<Phase, Long> phaseCounts = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> phaseTimes = new EnumMap<>(Phase.class);
+
+    private Snapshot(MappingStatistics statistics) {
+      this.id = statistics.getId();
+      this.executionCount = statistics.getExecutionCount();
+      this.rowCount = statistics.getRowCount();
+      this.totalTime = statistics.getTotalTime();
+      this.allocatedBytes = statistics.getAllocatedBytes();
+      for (Phase phase : Phase.values()) {
+        phaseCounts.put(phase, statistics.getPhaseCount(phase));
+        phaseTimes.put(phase, statistics.getPhaseTime(phase));
+      }
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public long getExecutionCount() {
+      return executionCount;
+    }
+
+    public long getRowCount() {
+      return rowCount;
+    }
+
+    public long getTotalTime() {
+      return totalTime;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    public long getAllocatedBytesPerRow() {
+      return rowCount == 0 ? 0 : allocatedBytes / rowCount;
+    }
+
+    public long getPhaseCount(Phase phase) {
+      return phaseCounts.get(phase);
+    }
+
+    public long getPhaseTime(Phase phase) {
+      return phaseTimes.get(phase);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder("MappingStatistics [").append(id).append("]: executions=").append(executionCount)
+          .append(", rows=").append(rowCount)
+          .append(", totalTime=").append(TimeUnit.NANOSECONDS.toMicros(totalTime)).append("us")
+          .append(", allocatedBytes=").append(allocatedBytes);
+      for (Phase phase : Phase.values()) {
+        builder.append(", ").append(phase).append('=').append(phaseCounts.get(phase)).append('/')
+            .append(TimeUnit.NANOSECONDS.toMicros(phaseTimes.get(phase))).append("us");
+      }
+      return builder.toString();
+    }
+  }
+
+}
@@ -48,6 +48,7 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private RowMappingPlan.ColumnSignature columnSignature;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -78,6 +79,29 @@ public class ResultSetWrapper {
     return jdbcTypes;
   }
 
+  RowMappingPlan.ColumnSignature getColumnSignature() {
+    if (columnSignature == null) {
+      columnSignature = new RowMappingPlan.ColumnSignature(columnNames, jdbcTypes, classNames);
+    }
+    return columnSignature;
+  }
+
+  /**
+   * Gets the index of a column, matching its label case-insensitively as JDBC drivers do.
+   *
+   * @param columnName the column label
+   * @return the 1-based index of the first column with this label, or 0 if there is none
+   * @since 3.5.4
+   */
+  public int getColumnIndex(String columnName) {
+    for (int i = 0; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
   public JdbcType getJdbcType(String columnName) {
     for (int i = 0 ; i < columnNames.size(); i++) {
       if (columnNames.get(i).equalsIgnoreCase(columnName)) {
@@ -0,0 +1,265 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * How the columns of a result set are mapped to the properties of a result map: the property mappings whose column
+ * is present, with their column prefix already applied and their column index, the automatic mappings of the other
+ * columns and the columns of the row key.
+ * <p>
+ * A plan only depends on the result map, the column prefix and the columns of the result set, so it is computed once
+ * and cached on the {@link ResultMap} to be reused by all the executions returning the same columns.
+ *
+ * @since 3.5.4
+ */
+public final class RowMappingPlan {
+
+  private final PropertyMapping[] propertyMappings;
+  private final RowKeyColumn[] rowKeyColumns;
+  // computed for the type of the first result object, usually the only one
+  private volatile AutoMappings autoMappings;
+
+  RowMappingPlan(PropertyMapping[] propertyMappings, RowKeyColumn[] rowKeyColumns) {
+    this.propertyMappings = propertyMappings;
+    this.rowKeyColumns = rowKeyColumns;
+  }
+
+  PropertyMapping[] getPropertyMappings() {
+    return propertyMappings;
+  }
+
+  RowKeyColumn[] getRowKeyColumns() {
+    return rowKeyColumns;
+  }
+
+  List<UnMappedColumnAutoMapping> getAutoMappings(Class<?> type) {
+    AutoMappings current = autoMappings;
+    return current != null && current.type == type ? current.mappings : null;
+  }
+
+  void setAutoMappings(Class<?> type, List<UnMappedColumnAutoMapping> mappings) {
+    autoMappings = new AutoMappings(type, mappings);
+  }
+
+  static final class PropertyMapping {
+    final ResultMapping resultMapping;
+    // with the column prefix, null for composite and nested result mappings
+    final String column;
+    // 1-based, 0 if the column is not in the result set
+    final int columnIndex;
+    // null if the mapping has no property
+    final PropertySetter setter;
+
+    PropertyMapping(ResultMapping resultMapping, String column, int columnIndex) {
+      this.resultMapping = resultMapping;
+      this.column = column;
+      this.columnIndex = columnIndex;
+      this.setter = resultMapping.getProperty() == null ? null : new PropertySetter(resultMapping.getProperty());
+    }
+  }
+
+  static final class UnMappedColumnAutoMapping {
+    final String column;
+    final int columnIndex;
+    final String property;
+    final PropertySetter setter;
+    final TypeHandler<?> typeHandler;
+    final boolean primitive;
+
+    UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
+      this.column = column;
+      this.columnIndex = columnIndex;
+      this.property = property;
+      this.setter = new PropertySetter(property);
+      this.typeHandler = typeHandler;
+      this.primitive = primitive;
+    }
+  }
+
+  /**
+   * A column of the unique key of a row, used to group the rows of nested result maps.
+   */
+  static final class RowKeyColumn {
+    final String column;
+    final int columnIndex;
+    final TypeHandler<?> typeHandler;
+
+    RowKeyColumn(String column, int columnIndex, TypeHandler<?> typeHandler) {
+      this.column = column;
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+  }
+
+  /**
+   * Writes a property of the result objects. A plain bean property is written through the setter invoker of the class
+   * of the object, resolved once, rather than parsing the property name and looking up its invoker for every row.
+   */
+  static final class PropertySetter {
+    private final String property;
+    private final boolean simple;
+    // resolved for the class of the first result object, usually the only one
+    private volatile ResolvedSetter resolved;
+
+    PropertySetter(String property) {
+      this.property = property;
+      this.simple = property.indexOf('.') < 0 && property.indexOf('[') < 0;
+    }
+
+    void setValue(MetaObject metaObject, Object value) {
+      if (!simple || metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+        metaObject.setValue(property, value);
+        return;
+      }
+      final Object object = metaObject.getOriginalObject();
+      ResolvedSetter current = resolved;
+      if (current == null || current.type != object.getClass()) {
+        Reflector reflector = metaObject.getReflectorFactory().findForClass(object.getClass());
+        if (!reflector.hasSetter(property)) {
+          // fails as usual
+          metaObject.setValue(property, value);
+          return;
+        }
+        current = new ResolvedSetter(object.getClass(), reflector.getSetInvoker(property));
+        resolved = current;
+      }
+      try {
+        try {
+          current.invoker.invoke(object, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+  private static final class ResolvedSetter {
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    ResolvedSetter(Class<?> type, Invoker invoker) {
+      this.type = type;
+      this.invoker = invoker;
+    }
+  }
+
+  private static final class AutoMappings {
+    private final Class<?> type;
+    private final List<UnMappedColumnAutoMapping> mappings;
+
+    AutoMappings(Class<?> type, List<UnMappedColumnAutoMapping> mappings) {
+      this.type = type;
+      this.mappings = mappings;
+    }
+  }
+
+  /**
+   * Identifies a plan among the plans of a result map.
+   */
+  public static final class Key {
+    private final String columnPrefix;
+    private final ColumnSignature columns;
+    // the settings the automatic mappings depend on
+    private final boolean mapUnderscoreToCamelCase;
+    private final AutoMappingUnknownColumnBehavior unknownColumnBehavior;
+    private final int hashCode;
+
+    Key(String columnPrefix, ColumnSignature columns, boolean mapUnderscoreToCamelCase,
+        AutoMappingUnknownColumnBehavior unknownColumnBehavior) {
+      this.columnPrefix = columnPrefix;
+      this.columns = columns;
+      this.mapUnderscoreToCamelCase = mapUnderscoreToCamelCase;
+      this.unknownColumnBehavior = unknownColumnBehavior;
+      this.hashCode = Objects.hash(columnPrefix, columns, mapUnderscoreToCamelCase, unknownColumnBehavior);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hashCode == other.hashCode
+          && mapUnderscoreToCamelCase == other.mapUnderscoreToCamelCase
+          && unknownColumnBehavior == other.unknownColumnBehavior
+          && Objects.equals(columnPrefix, other.columnPrefix)
+          && columns.equals(other.columns);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * The labels, types and classes of the columns of a result set.
+   */
+  static final class ColumnSignature {
+    private final List<String> columnNames;
+    private final List<JdbcType> jdbcTypes;
+    private final List<String> classNames;
+    private final int hashCode;
+
+    ColumnSignature(List<String> columnNames, List<JdbcType> jdbcTypes, List<String> classNames) {
+      this.columnNames = columnNames;
+      this.jdbcTypes = jdbcTypes;
+      this.classNames = classNames;
+      this.hashCode = Objects.hash(columnNames, jdbcTypes, classNames);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ColumnSignature)) {
+        return false;
+      }
+      ColumnSignature other = (ColumnSignature) o;
+      return hashCode == other.hashCode
+          && columnNames.equals(other.columnNames)
+          && jdbcTypes.equals(other.jdbcTypes)
+          && classNames.equals(other.classNames);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
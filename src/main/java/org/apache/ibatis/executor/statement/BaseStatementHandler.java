@@ -18,6 +18,8 @@ package org.apache.ibatis.executor.statement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
@@ -26,7 +28,9 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -125,6 +129,78 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  /**
+   * Applies the streaming fetch size to a select whose rows are handed over one at a time, so that the drivers that
+   * read the whole result set by default stream it instead. When it is not set, a default is only chosen by the
+   * database id for the drivers whose streaming lets other statements run on the connection, i.e. not for MySQL and
+   * MariaDB, which reject them while a result set is streamed. Selects that set a fetch size or run nested selects are
+   * left unchanged.
+   *
+   * @return the fetch size to restore once the statement was executed, or {@code null} if it was not changed
+   */
+  protected Integer applyStreamingFetchSize(Statement stmt) throws SQLException {
+    Integer streamingFetchSize = configuration.getStreamingFetchSize();
+    if (streamingFetchSize == null) {
+      streamingFetchSize = getDefaultStreamingFetchSize(configuration.getDatabaseId());
+    }
+    if (streamingFetchSize == null || streamingFetchSize == 0
+        || mappedStatement.getFetchSize() != null || hasNestedQueries()) {
+      return null;
+    }
+    int fetchSize = stmt.getFetchSize();
+    stmt.setFetchSize(streamingFetchSize);
+    return fetchSize;
+  }
+
+  protected void restoreFetchSize(Statement stmt, Integer fetchSize) {
+    if (fetchSize == null) {
+      return;
+    }
+    try {
+      // a reused statement must not stream the results of the next select
+      stmt.setFetchSize(fetchSize);
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private Integer getDefaultStreamingFetchSize(String databaseId) {
+    if (databaseId != null && databaseId.regionMatches(true, 0, "postgres", 0, 8)) {
+      // uses a server side cursor unless the connection is in auto commit mode
+      return 1000;
+    }
+    return null;
+  }
+
+  private boolean hasNestedQueries() {
+    Set<String> checkedResultMapIds = new HashSet<>();
+    for (ResultMap resultMap : mappedStatement.getResultMaps()) {
+      if (hasNestedQueries(resultMap, checkedResultMapIds)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> checkedResultMapIds) {
+    if (!checkedResultMapIds.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (configuration.hasResultMap(caseResultMapId)
+            && hasNestedQueries(configuration.getResultMap(caseResultMapId), checkedResultMapIds)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
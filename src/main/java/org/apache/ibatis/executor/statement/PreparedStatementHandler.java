@@ -61,14 +61,24 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
-    ps.execute();
-    return resultSetHandler.handleResultSets(ps);
+    Integer fetchSize = resultHandler != null ? applyStreamingFetchSize(ps) : null;
+    try {
+      ps.execute();
+      return resultSetHandler.handleResultSets(ps);
+    } finally {
+      restoreFetchSize(ps, fetchSize);
+    }
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
-    ps.execute();
+    Integer fetchSize = applyStreamingFetchSize(ps);
+    try {
+      ps.execute();
+    } finally {
+      restoreFetchSize(ps, fetchSize);
+    }
     return resultSetHandler.handleCursorResultSets(ps);
   }
 
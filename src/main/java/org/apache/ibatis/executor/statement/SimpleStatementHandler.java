@@ -71,14 +71,24 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
-    statement.execute(sql);
-    return resultSetHandler.handleResultSets(statement);
+    Integer fetchSize = resultHandler != null ? applyStreamingFetchSize(statement) : null;
+    try {
+      statement.execute(sql);
+      return resultSetHandler.handleResultSets(statement);
+    } finally {
+      restoreFetchSize(statement, fetchSize);
+    }
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
-    statement.execute(sql);
+    Integer fetchSize = applyStreamingFetchSize(statement);
+    try {
+      statement.execute(sql);
+    } finally {
+      restoreFetchSize(statement, fetchSize);
+    }
     return resultSetHandler.handleCursorResultSets(statement);
   }
 
@@ -24,12 +24,15 @@ import java.util.Properties;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.decorators.BlockingCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -46,6 +49,7 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private CacheStatistics statistics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -89,20 +93,41 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Sets the statistics the cache records into. A new instance is created if none is set.
+   *
+   * @param statistics the statistics
+   * @return this builder
+   * @since 3.5.4
+   */
+  public CacheBuilder statistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    return this;
+  }
+
   public Cache build() {
     setDefaultImplementations();
+    if (statistics == null) {
+      statistics = new CacheStatistics(id);
+    }
     Cache cache = newBaseCacheInstance(implementation, id);
     setCacheProperties(cache);
+    setCacheStatistics(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
+        setCacheStatistics(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true);
+    } else if (ConcurrentCache.class.equals(cache.getClass()) || OffHeapCache.class.equals(cache.getClass())) {
+      // evicts on its own and is thread-safe, so neither the eviction decorators nor SynchronizedCache are needed
+      cache = setStandardDecorators(cache, false);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+      cache = new LoggingCache(cache, statistics);
     }
+    statistics.setCache(cache);
     return cache;
   }
 
@@ -115,7 +140,7 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean synchronize) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -124,12 +149,16 @@ public class CacheBuilder {
       if (clearInterval != null) {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
+        ((ScheduledCache) cache).setStatistics(statistics);
       }
       if (readWrite) {
         cache = new SerializedCache(cache);
+        setCacheProperties(cache);
+      }
+      cache = new LoggingCache(cache, statistics);
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
       }
-      cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
       if (blocking) {
         cache = new BlockingCache(cache);
       }
@@ -186,6 +215,13 @@ public class CacheBuilder {
     }
   }
 
+  private void setCacheStatistics(Cache cache) {
+    MetaObject metaCache = SystemMetaObject.forObject(cache);
+    if (metaCache.hasSetter("statistics") && CacheStatistics.class.equals(metaCache.getSetterType("statistics"))) {
+      metaCache.setValue("statistics", statistics);
+    }
+  }
+
   private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
     Constructor<? extends Cache> cacheConstructor = getBaseCacheConstructor(cacheClass);
     try {
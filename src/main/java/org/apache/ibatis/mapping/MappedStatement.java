@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.ibatis.builder.MultiRowInsertSqlSource;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -38,6 +39,9 @@ public final class MappedStatement {
   private String id;
   private Integer fetchSize;
   private Integer timeout;
+  private Integer batchSize;
+  private Integer multiRowInsertSize;
+  private MappedStatement multiRowInsertStatement;
   private StatementType statementType;
   private ResultSetType resultSetType;
   private SqlSource sqlSource;
@@ -46,7 +50,9 @@ public final class MappedStatement {
   private List<ResultMap> resultMaps;
   private boolean flushCacheRequired;
   private boolean useCache;
+  private boolean useLocalCache;
   private boolean resultOrdered;
+  private boolean parallelMapping;
   private SqlCommandType sqlCommandType;
   private KeyGenerator keyGenerator;
   private String[] keyProperties;
@@ -70,6 +76,7 @@ public final class MappedStatement {
       mappedStatement.sqlSource = sqlSource;
       mappedStatement.statementType = StatementType.PREPARED;
       mappedStatement.resultSetType = ResultSetType.DEFAULT;
+      mappedStatement.useLocalCache = true;
       mappedStatement.parameterMap = new ParameterMap.Builder(configuration, "defaultParameterMap", null, new ArrayList<>()).build();
       mappedStatement.resultMaps = new ArrayList<>();
       mappedStatement.sqlCommandType = sqlCommandType;
@@ -139,11 +146,43 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.5.4
+     */
+    public Builder useLocalCache(boolean useLocalCache) {
+      mappedStatement.useLocalCache = useLocalCache;
+      return this;
+    }
+
     public Builder resultOrdered(boolean resultOrdered) {
       mappedStatement.resultOrdered = resultOrdered;
       return this;
     }
 
+    /**
+     * @since 3.5.4
+     */
+    public Builder parallelMapping(boolean parallelMapping) {
+      mappedStatement.parallelMapping = parallelMapping;
+      return this;
+    }
+
+    /**
+     * @since 3.5.4
+     */
+    public Builder batchSize(Integer batchSize) {
+      mappedStatement.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * @since 3.5.4
+     */
+    public Builder multiRowInsertSize(Integer multiRowInsertSize) {
+      mappedStatement.multiRowInsertSize = multiRowInsertSize;
+      return this;
+    }
+
     public Builder keyGenerator(KeyGenerator keyGenerator) {
       mappedStatement.keyGenerator = keyGenerator;
       return this;
@@ -189,10 +228,45 @@ public final class MappedStatement {
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
+      if (mappedStatement.multiRowInsertSize != null && mappedStatement.multiRowInsertSize > 1) {
+        mappedStatement.multiRowInsertStatement = mappedStatement.copyWithSqlSource(
+            new MultiRowInsertSqlSource(mappedStatement.configuration, mappedStatement.sqlSource));
+      }
       return mappedStatement;
     }
   }
 
+  private MappedStatement copyWithSqlSource(SqlSource sqlSource) {
+    MappedStatement copy = new MappedStatement();
+    copy.resource = resource;
+    copy.configuration = configuration;
+    copy.id = id;
+    copy.fetchSize = fetchSize;
+    copy.timeout = timeout;
+    copy.batchSize = batchSize;
+    copy.statementType = statementType;
+    copy.resultSetType = resultSetType;
+    copy.sqlSource = sqlSource;
+    copy.cache = cache;
+    copy.parameterMap = parameterMap;
+    copy.resultMaps = resultMaps;
+    copy.flushCacheRequired = flushCacheRequired;
+    copy.useCache = useCache;
+    copy.useLocalCache = useLocalCache;
+    copy.resultOrdered = resultOrdered;
+    copy.parallelMapping = parallelMapping;
+    copy.sqlCommandType = sqlCommandType;
+    copy.keyGenerator = keyGenerator;
+    copy.keyProperties = keyProperties;
+    copy.keyColumns = keyColumns;
+    copy.hasNestedResultMaps = hasNestedResultMaps;
+    copy.databaseId = databaseId;
+    copy.statementLog = statementLog;
+    copy.lang = lang;
+    copy.resultSets = resultSets;
+    return copy;
+  }
+
   public KeyGenerator getKeyGenerator() {
     return keyGenerator;
   }
@@ -257,10 +331,62 @@ public final class MappedStatement {
     return useCache;
   }
 
+  /**
+   * Returns whether the results of this statement are kept in the local cache of the session once the outermost query
+   * is complete.
+   *
+   * @return false if the results are only kept while the outermost query is running
+   * @since 3.5.4
+   */
+  public boolean isUseLocalCache() {
+    return useLocalCache;
+  }
+
   public boolean isResultOrdered() {
     return resultOrdered;
   }
 
+  /**
+   * Returns whether the rows of this statement are mapped to result objects by a pool of worker threads.
+   *
+   * @return true if parallel mapping is enabled for this statement
+   * @since 3.5.4
+   */
+  public boolean isParallelMapping() {
+    return parallelMapping;
+  }
+
+  /**
+   * Returns the number of rows after which the batch executor executes the batches of this statement.
+   *
+   * @return the batch size, or null to use the <code>defaultBatchSize</code> setting
+   * @since 3.5.4
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the number of rows inserted by each statement when this insert is given a collection.
+   *
+   * @return the number of rows, or null if the rows are inserted one by one
+   * @since 3.5.4
+   */
+  public Integer getMultiRowInsertSize() {
+    return multiRowInsertSize;
+  }
+
+  /**
+   * Returns the statement inserting {@link #getMultiRowInsertSize()} rows at once, the elements of the list it is
+   * given. It shares everything with this statement but its SQL.
+   *
+   * @return the statement, or null if this statement does not insert several rows at once
+   * @since 3.5.4
+   */
+  public MappedStatement getMultiRowInsertStatement() {
+    return multiRowInsertStatement;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -22,10 +22,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.executor.resultset.RowMappingPlan;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.reflection.ParamNameUtil;
@@ -35,6 +38,8 @@ import org.apache.ibatis.session.Configuration;
  * @author Clinton Begin
  */
 public class ResultMap {
+  private static final int MAXIMUM_ROW_MAPPING_PLANS = 32;
+
   private Configuration configuration;
 
   private String id;
@@ -49,6 +54,7 @@ public class ResultMap {
   private boolean hasNestedResultMaps;
   private boolean hasNestedQueries;
   private Boolean autoMapping;
+  private final Map<RowMappingPlan.Key, RowMappingPlan> rowMappingPlans = new ConcurrentHashMap<>();
 
   private ResultMap() {
   }
@@ -254,6 +260,31 @@ public class ResultMap {
     hasNestedResultMaps = true;
   }
 
+  /**
+   * Gets the plan to map the columns of a result set to this result map.
+   *
+   * @param key identifies the columns of the result set
+   * @return the plan, or null if it was not computed yet
+   * @since 3.5.4
+   */
+  public RowMappingPlan getRowMappingPlan(RowMappingPlan.Key key) {
+    return rowMappingPlans.get(key);
+  }
+
+  /**
+   * Caches a plan to map the columns of a result set to this result map. The number of plans is bounded, so that a
+   * statement selecting varying columns does not fill the memory.
+   *
+   * @param key identifies the columns of the result set
+   * @param plan the plan
+   * @since 3.5.4
+   */
+  public void addRowMappingPlan(RowMappingPlan.Key key, RowMappingPlan plan) {
+    if (rowMappingPlans.size() < MAXIMUM_ROW_MAPPING_PLANS) {
+      rowMappingPlans.putIfAbsent(key, plan);
+    }
+  }
+
   public Boolean getAutoMapping() {
     return autoMapping;
   }
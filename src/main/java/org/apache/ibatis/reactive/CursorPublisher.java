@@ -0,0 +1,199 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A publisher of the items of a {@link Cursor}. The cursor is opened when the first item is requested and is read on
+ * the executor as far as the subscriber requested. It is closed once all its items were published, when it fails and
+ * when the subscription is cancelled.
+ * <p>
+ * A cursor can be read only once, so a publisher accepts only one subscriber. Items mapped to {@code null} are not
+ * published.
+ * </p>
+ *
+ * @param <T> the type of the published items
+ * @since 3.5.4
+ */
+public class CursorPublisher<T> implements Publisher<T> {
+
+  private final Supplier<Cursor<T>> cursorSupplier;
+  private final Executor executor;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * @param cursorSupplier opens the cursor, which is called on the executor
+   * @param executor the executor that reads the cursor
+   */
+  public CursorPublisher(Supplier<Cursor<T>> cursorSupplier, Executor executor) {
+    this.cursorSupplier = cursorSupplier;
+    this.executor = executor;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("The subscriber must not be null.");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+          // nothing to publish
+        }
+
+        @Override
+        public void cancel() {
+          // nothing to publish
+        }
+      });
+      subscriber.onError(new IllegalStateException("A cursor publisher accepts only one subscriber."));
+      return;
+    }
+    CursorSubscription subscription = new CursorSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private class CursorSubscription implements Subscription, Runnable {
+
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    // the number of pending signals, the cursor is read by the thread that raised it from zero
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    CursorSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("The number of requested items must be positive: " + n);
+      } else {
+        requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (pending.getAndIncrement() == 0) {
+        try {
+          executor.execute(this);
+        } catch (RuntimeException e) {
+          pending.set(0);
+          cancelled = true;
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        publish();
+        missed = pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void publish() {
+      if (done) {
+        return;
+      }
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest != null) {
+        finish();
+        subscriber.onError(invalidRequest);
+        return;
+      }
+      try {
+        long demand = requested.get();
+        if (demand == 0) {
+          return;
+        }
+        if (cursor == null) {
+          cursor = cursorSupplier.get();
+          iterator = cursor.iterator();
+        }
+        long published = 0;
+        while (published != demand) {
+          if (cancelled) {
+            finish();
+            return;
+          }
+          if (!iterator.hasNext()) {
+            finish();
+            subscriber.onComplete();
+            return;
+          }
+          T item = iterator.next();
+          if (item != null) {
+            subscriber.onNext(item);
+            published++;
+          }
+        }
+        // signals the completion without waiting for a demand that may never come
+        if (!cancelled && !iterator.hasNext()) {
+          finish();
+          subscriber.onComplete();
+          return;
+        }
+        if (demand != Long.MAX_VALUE) {
+          requested.addAndGet(-published);
+        }
+      } catch (Throwable t) {
+        finish();
+        subscriber.onError(t);
+      }
+    }
+
+    private void finish() {
+      done = true;
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+}
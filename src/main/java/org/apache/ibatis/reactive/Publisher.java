@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+/**
+ * A provider of items that are published on demand to the subscribers. It has the same contract as the
+ * {@code java.util.concurrent.Flow.Publisher} of Java 9 and the Reactive Streams {@code Publisher}, so it can be adapted
+ * to them with a method reference.
+ *
+ * @param <T> the type of the published items
+ * @since 3.5.4
+ */
+@FunctionalInterface
+public interface Publisher<T> {
+
+  /**
+   * Adds a subscriber, which is first handed a {@link Subscription} to request the items with.
+   *
+   * @param subscriber the subscriber
+   */
+  void subscribe(Subscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+/**
+ * A receiver of the items of a {@link Publisher}. The methods are called one at a time, in order.
+ *
+ * @param <T> the type of the received items
+ * @since 3.5.4
+ */
+public interface Subscriber<T> {
+
+  /**
+   * Called first, before any other method.
+   *
+   * @param subscription the subscription to request the items with
+   */
+  void onSubscribe(Subscription subscription);
+
+  /**
+   * Called with each item, no more often than the items were requested.
+   *
+   * @param item the item
+   */
+  void onNext(T item);
+
+  /**
+   * Called once when the publisher failed. No other method is called afterwards.
+   *
+   * @param throwable the failure
+   */
+  void onError(Throwable throwable);
+
+  /**
+   * Called once when all the items were published. No other method is called afterwards.
+   */
+  void onComplete();
+
+}
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
+
+/**
+ * A reflector factory whose reflectors call the public getters and setters of public classes through classes generated
+ * by {@link java.lang.invoke.LambdaMetafactory}, which are much faster than reflection on the hot path of the result
+ * mapping. Fields and the other methods are still accessed by reflection.
+ * <p>
+ * It is enabled with <code>&lt;reflectorFactory type="org.apache.ibatis.reflection.LambdaReflectorFactory"/&gt;</code>.
+ *
+ * @since 3.5.4
+ * @see LambdaMethodInvoker
+ */
+public class LambdaReflectorFactory extends DefaultReflectorFactory {
+
+  @Override
+  protected Reflector createReflector(Class<?> type) {
+    return new Reflector(type, true);
+  }
+
+}
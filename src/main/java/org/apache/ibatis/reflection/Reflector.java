@@ -37,6 +37,7 @@ import java.util.Map.Entry;
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
@@ -50,6 +51,7 @@ import org.apache.ibatis.reflection.property.PropertyNamer;
 public class Reflector {
 
   private final Class<?> type;
+  private final boolean generateInvokers;
   private final String[] readablePropertyNames;
   private final String[] writablePropertyNames;
   private final Map<String, Invoker> setMethods = new HashMap<>();
@@ -61,7 +63,21 @@ public class Reflector {
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, false);
+  }
+
+  /**
+   * Creates a reflector.
+   *
+   * @param clazz the class
+   * @param generateInvokers true to invoke the public getters and setters through a generated class rather than by
+   *          reflection
+   * @since 3.5.4
+   * @see LambdaMethodInvoker
+   */
+  public Reflector(Class<?> clazz, boolean generateInvokers) {
     type = clazz;
+    this.generateInvokers = generateInvokers;
     // 设置默认构造器
     addDefaultConstructor(clazz);
     // 获取类的get方法，并设置到getMethods和getTypes中
@@ -138,7 +154,7 @@ public class Reflector {
         ? new AmbiguousMethodInvoker(method, MessageFormat.format(
             "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
             name, method.getDeclaringClass().getName()))
-        : new MethodInvoker(method);
+        : newMethodInvoker(method);
     getMethods.put(name, invoker);
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
     getTypes.put(name, typeToClass(returnType));
@@ -205,12 +221,16 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    MethodInvoker invoker = newMethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
   }
 
+  private MethodInvoker newMethodInvoker(Method method) {
+    return generateInvokers ? LambdaMethodInvoker.create(method) : new MethodInvoker(method);
+  }
+
   private Class<?> typeToClass(Type src) {
     Class<?> result = null;
     if (src instanceof Class) {
@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Invokes a getter or a setter through a class generated by {@link LambdaMetafactory}, which the JIT compiles to a
+ * direct call, instead of {@link Method#invoke(Object, Object...)}.
+ *
+ * @since 3.5.4
+ */
+public class LambdaMethodInvoker extends MethodInvoker {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+
+  private LambdaMethodInvoker(Method method, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+    super(method);
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  /**
+   * Creates an invoker for a getter, that takes no argument, or a setter, that takes one. Falls back to a reflective
+   * {@link MethodInvoker} when no class can be generated: the method is not public, its class is not public or is not
+   * visible from the class loader of MyBatis.
+   *
+   * @param method the getter or setter
+   * @return the invoker
+   */
+  public static MethodInvoker create(Method method) {
+    if (!isAccessible(method)) {
+      return new MethodInvoker(method);
+    }
+    try {
+      MethodHandle handle = LOOKUP.unreflect(method);
+      Class<?> declaringClass = method.getDeclaringClass();
+      if (method.getParameterTypes().length == 0) {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class), handle,
+            MethodType.methodType(box(method.getReturnType()), declaringClass));
+        return new LambdaMethodInvoker(method, asFunction(site.getTarget().invokeWithArguments()), null);
+      } else {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class), handle,
+            MethodType.methodType(void.class, declaringClass, box(method.getParameterTypes()[0])));
+        return new LambdaMethodInvoker(method, null, asBiConsumer(site.getTarget().invokeWithArguments()));
+      }
+    } catch (Throwable t) {
+      return new MethodInvoker(method);
+    }
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    try {
+      if (setter != null) {
+        setter.accept(target, args[0]);
+        return null;
+      }
+      return getter.apply(target);
+    } catch (Throwable t) {
+      // as Method.invoke() does, so that callers unwrap it the same way
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  private static boolean isAccessible(Method method) {
+    if (method.getParameterTypes().length > 1 || method.isVarArgs() || Modifier.isStatic(method.getModifiers())
+        || !Modifier.isPublic(method.getModifiers())) {
+      return false;
+    }
+    Class<?> type = method.getParameterTypes().length == 0 ? method.getReturnType() : method.getParameterTypes()[0];
+    return isAccessible(method.getDeclaringClass()) && isAccessible(type);
+  }
+
+  private static boolean isAccessible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    return type.isPrimitive() || isPublic(type) && isVisible(type);
+  }
+
+  private static boolean isPublic(Class<?> type) {
+    for (Class<?> current = type; current != null; current = current.getDeclaringClass()) {
+      if (!Modifier.isPublic(current.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isVisible(Class<?> type) {
+    // the generated class resolves the types through the class loader of MyBatis
+    try {
+      return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Class<?> box(Class<?> type) {
+    return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> asFunction(Object function) {
+    return (Function<Object, Object>) function;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> asBiConsumer(Object consumer) {
+    return (BiConsumer<Object, Object>) consumer;
+  }
+
+}
@@ -15,18 +15,29 @@
  */
 package org.apache.ibatis.session;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
+import javax.management.JMException;
+
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
@@ -34,15 +45,22 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheLoadCoalescer;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResultListener;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
@@ -53,6 +71,7 @@ import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.MappingStatistics;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
@@ -100,11 +119,14 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  */
 public class Configuration {
 
+  private static final AtomicInteger instanceCount = new AtomicInteger();
+
   protected Environment environment;
 
   protected boolean safeRowBoundsEnabled;
   protected boolean safeResultHandlerEnabled = true;
   protected boolean mapUnderscoreToCamelCase;
+  protected boolean useColumnIndex;
   protected boolean aggressiveLazyLoading;
   protected boolean multipleResultSetsEnabled = true;
   protected boolean useGeneratedKeys;
@@ -113,6 +135,23 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean cacheStatisticsMBeansEnabled;
+  protected boolean cacheLoadCoalescingEnabled;
+  protected boolean mappingStatisticsEnabled;
+  protected boolean batchGroupingEnabled;
+  protected Integer defaultBatchSize;
+  protected Integer maxBatchRows;
+  protected Integer localCacheSize;
+  protected Integer localCacheMaxRows;
+  protected BatchResultListener batchResultListener;
+  protected int cacheLoadCoalescingTimeout = 10000;
+  protected int parallelMappingBatchSize = 256;
+  protected volatile ExecutorService parallelMappingExecutor;
+  protected int cursorPrefetchSize;
+  protected volatile ExecutorService cursorPrefetchExecutor;
+  protected volatile ExecutorService publisherExecutor;
+  // the executors created on first use, which shutdownExecutors() shuts down, guarded by itself
+  private final List<ExecutorService> createdExecutors = new ArrayList<>();
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -122,6 +161,8 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer streamingFetchSize;
+  protected Integer fetchBufferSize;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -154,6 +195,12 @@ public class Configuration {
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
+  protected final Map<String, CacheStatistics> cacheStatistics = new LinkedHashMap<>();
+  // tells apart the MBeans of the caches with the same id of different configurations
+  private final String cacheStatisticsScope = "configuration-" + instanceCount.incrementAndGet();
+  protected final CacheLoadCoalescer cacheLoadCoalescer = new CacheLoadCoalescer();
+  protected final Set<String> readOnlyCacheIds = new HashSet<>();
+  protected final Map<String, MappingStatistics> mappingStatistics = new ConcurrentHashMap<>();
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
@@ -185,12 +232,15 @@ public class Configuration {
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_POOLED", ConcurrentPooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -306,6 +356,24 @@ public class Configuration {
     this.mapUnderscoreToCamelCase = mapUnderscoreToCamelCase;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isUseColumnIndex() {
+    return useColumnIndex;
+  }
+
+  /**
+   * Sets whether the mapped columns are read by their index rather than by their label. The index of each column is
+   * resolved once per result map and column layout.
+   *
+   * @param useColumnIndex true to read the columns by index
+   * @since 3.5.4
+   */
+  public void setUseColumnIndex(boolean useColumnIndex) {
+    this.useColumnIndex = useColumnIndex;
+  }
+
   public void addLoadedResource(String resource) {
     loadedResources.add(resource);
   }
@@ -403,6 +471,112 @@ public class Configuration {
     this.defaultExecutorType = defaultExecutorType;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isBatchGroupingEnabled() {
+    return batchGroupingEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor adds the interleaved inserts of a same SQL to a single JDBC batch.
+   *
+   * @param batchGroupingEnabled true to group the inserts
+   * @since 3.5.4
+   */
+  public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+    this.batchGroupingEnabled = batchGroupingEnabled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getDefaultBatchSize() {
+    return defaultBatchSize;
+  }
+
+  /**
+   * Sets the number of rows of a statement after which the batch executor executes the pending batches.
+   * The <code>batchSize</code> of a statement overrides it.
+   *
+   * @param defaultBatchSize the batch size, null or 0 to wait for the session to be flushed
+   * @since 3.5.4
+   */
+  public void setDefaultBatchSize(Integer defaultBatchSize) {
+    this.defaultBatchSize = defaultBatchSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getMaxBatchRows() {
+    return maxBatchRows;
+  }
+
+  /**
+   * Sets the number of rows of all statements after which the batch executor executes the pending batches,
+   * bounding the parameter objects a session holds.
+   *
+   * @param maxBatchRows the number of rows, null or 0 for no limit
+   * @since 3.5.4
+   */
+  public void setMaxBatchRows(Integer maxBatchRows) {
+    this.maxBatchRows = maxBatchRows;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  /**
+   * Sets the number of query results a session keeps in its local cache, the least recently used ones being removed
+   * once a query is complete.
+   *
+   * @param localCacheSize the number of results, null or 0 for no limit
+   * @since 3.5.4
+   */
+  public void setLocalCacheSize(Integer localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getLocalCacheMaxRows() {
+    return localCacheMaxRows;
+  }
+
+  /**
+   * Sets the number of rows of all the query results a session keeps in its local cache, the least recently used
+   * results being removed once a query is complete.
+   *
+   * @param localCacheMaxRows the number of rows, null or 0 for no limit
+   * @since 3.5.4
+   */
+  public void setLocalCacheMaxRows(Integer localCacheMaxRows) {
+    this.localCacheMaxRows = localCacheMaxRows;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public BatchResultListener getBatchResultListener() {
+    return batchResultListener;
+  }
+
+  /**
+   * Sets the listener notified of every batch executed by the batch executor.
+   *
+   * @param batchResultListener the listener, or null
+   * @since 3.5.4
+   */
+  public void setBatchResultListener(BatchResultListener batchResultListener) {
+    this.batchResultListener = batchResultListener;
+  }
+
   public boolean isCacheEnabled() {
     return cacheEnabled;
   }
@@ -411,6 +585,254 @@ public class Configuration {
     this.cacheEnabled = cacheEnabled;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public boolean isCacheStatisticsMBeansEnabled() {
+    return cacheStatisticsMBeansEnabled;
+  }
+
+  /**
+   * Sets whether the statistics of the caches built afterwards are registered to the platform MBean server. They stay
+   * registered until {@link #unregisterCacheStatisticsMBeans()} is called.
+   *
+   * @param cacheStatisticsMBeansEnabled true to register them
+   * @since 3.5.4
+   */
+  public void setCacheStatisticsMBeansEnabled(boolean cacheStatisticsMBeansEnabled) {
+    this.cacheStatisticsMBeansEnabled = cacheStatisticsMBeansEnabled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isMappingStatisticsEnabled() {
+    return mappingStatisticsEnabled;
+  }
+
+  /**
+   * Sets whether the mapping of the results is timed and counted per statement.
+   *
+   * @param mappingStatisticsEnabled true to record the statistics
+   * @since 3.5.4
+   */
+  public void setMappingStatisticsEnabled(boolean mappingStatisticsEnabled) {
+    this.mappingStatisticsEnabled = mappingStatisticsEnabled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isCacheLoadCoalescingEnabled() {
+    return cacheLoadCoalescingEnabled;
+  }
+
+  /**
+   * Sets whether the sessions missing a same second level cache entry at the same time share one query. Only applies
+   * to read-only caches, since the sessions share the result objects.
+   *
+   * @param cacheLoadCoalescingEnabled true to share the query
+   * @since 3.5.4
+   */
+  public void setCacheLoadCoalescingEnabled(boolean cacheLoadCoalescingEnabled) {
+    this.cacheLoadCoalescingEnabled = cacheLoadCoalescingEnabled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getCacheLoadCoalescingTimeout() {
+    return cacheLoadCoalescingTimeout;
+  }
+
+  /**
+   * Sets the maximum time in milliseconds a session waits for the query of another session before running its own.
+   *
+   * @param cacheLoadCoalescingTimeout the timeout in milliseconds
+   * @since 3.5.4
+   */
+  public void setCacheLoadCoalescingTimeout(int cacheLoadCoalescingTimeout) {
+    this.cacheLoadCoalescingTimeout = cacheLoadCoalescingTimeout;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public CacheLoadCoalescer getCacheLoadCoalescer() {
+    return cacheLoadCoalescer;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getParallelMappingBatchSize() {
+    return parallelMappingBatchSize;
+  }
+
+  /**
+   * Sets the number of rows that are handed to a worker thread at once by the statements that map in parallel.
+   *
+   * @param parallelMappingBatchSize the number of rows per batch
+   * @since 3.5.4
+   */
+  public void setParallelMappingBatchSize(int parallelMappingBatchSize) {
+    this.parallelMappingBatchSize = parallelMappingBatchSize;
+  }
+
+  /**
+   * Returns the executor that maps the rows of the statements that map in parallel. Unless set, a pool of daemon
+   * threads sized to the available processors is created on first use, and shut down by
+   * {@link #shutdownExecutors()}.
+   *
+   * @return the executor of the mapping tasks
+   * @since 3.5.4
+   */
+  public ExecutorService getParallelMappingExecutor() {
+    ExecutorService executor = parallelMappingExecutor;
+    if (executor == null) {
+      synchronized (createdExecutors) {
+        executor = parallelMappingExecutor;
+        if (executor == null) {
+          executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+              newDaemonThreadFactory("mybatis-parallel-mapping-"));
+          createdExecutors.add(executor);
+          parallelMappingExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Sets the executor that maps the rows of the statements that map in parallel. The executor is not shut down by
+   * MyBatis.
+   *
+   * @param parallelMappingExecutor the executor of the mapping tasks
+   * @since 3.5.4
+   */
+  public void setParallelMappingExecutor(ExecutorService parallelMappingExecutor) {
+    this.parallelMappingExecutor = parallelMappingExecutor;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets the number of items a cursor reads ahead on a background thread. Zero disables reading ahead.
+   *
+   * @param cursorPrefetchSize the number of items read ahead
+   * @since 3.5.4
+   */
+  public void setCursorPrefetchSize(int cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * Returns the executor that runs the background threads of the cursors that read ahead. Each open cursor takes a
+   * thread, so unless set, a pool of daemon threads that grows on demand is created on first use, and shut down by
+   * {@link #shutdownExecutors()}.
+   *
+   * @return the executor of the cursors that read ahead
+   * @since 3.5.4
+   */
+  public ExecutorService getCursorPrefetchExecutor() {
+    ExecutorService executor = cursorPrefetchExecutor;
+    if (executor == null) {
+      synchronized (createdExecutors) {
+        executor = cursorPrefetchExecutor;
+        if (executor == null) {
+          executor = Executors.newCachedThreadPool(newDaemonThreadFactory("mybatis-cursor-prefetch-"));
+          createdExecutors.add(executor);
+          cursorPrefetchExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Sets the executor that runs the background threads of the cursors that read ahead. The executor is not shut down
+   * by MyBatis.
+   *
+   * @param cursorPrefetchExecutor the executor of the cursors that read ahead
+   * @since 3.5.4
+   */
+  public void setCursorPrefetchExecutor(ExecutorService cursorPrefetchExecutor) {
+    this.cursorPrefetchExecutor = cursorPrefetchExecutor;
+  }
+
+  /**
+   * Returns the executor that reads the cursors of the publishers returned by
+   * {@link SqlSession#selectPublisher(String, Object, RowBounds)}. Unless set, a pool of daemon threads that grows on
+   * demand is created on first use, and shut down by {@link #shutdownExecutors()}.
+   *
+   * @return the executor of the publishers
+   * @since 3.5.4
+   */
+  public ExecutorService getPublisherExecutor() {
+    ExecutorService executor = publisherExecutor;
+    if (executor == null) {
+      synchronized (createdExecutors) {
+        executor = publisherExecutor;
+        if (executor == null) {
+          executor = Executors.newCachedThreadPool(newDaemonThreadFactory("mybatis-publisher-"));
+          createdExecutors.add(executor);
+          publisherExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Sets the executor that reads the cursors of the publishers. The executor is not shut down by MyBatis.
+   *
+   * @param publisherExecutor the executor of the publishers
+   * @since 3.5.4
+   */
+  public void setPublisherExecutor(ExecutorService publisherExecutor) {
+    this.publisherExecutor = publisherExecutor;
+  }
+
+  /**
+   * Shuts down the executors created on first use by {@link #getParallelMappingExecutor()},
+   * {@link #getCursorPrefetchExecutor()} and {@link #getPublisherExecutor()}, to be called when this configuration is
+   * discarded. The executors that were set are not shut down. The running tasks are completed, and new executors are
+   * created if they are used again.
+   *
+   * @since 3.5.4
+   */
+  public void shutdownExecutors() {
+    synchronized (createdExecutors) {
+      for (ExecutorService executor : createdExecutors) {
+        executor.shutdown();
+      }
+      if (createdExecutors.contains(parallelMappingExecutor)) {
+        parallelMappingExecutor = null;
+      }
+      if (createdExecutors.contains(cursorPrefetchExecutor)) {
+        cursorPrefetchExecutor = null;
+      }
+      if (createdExecutors.contains(publisherExecutor)) {
+        publisherExecutor = null;
+      }
+      createdExecutors.clear();
+    }
+  }
+
+  private static ThreadFactory newDaemonThreadFactory(String namePrefix) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
   public Integer getDefaultStatementTimeout() {
     return defaultStatementTimeout;
   }
@@ -433,6 +855,45 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public Integer getStreamingFetchSize() {
+    return streamingFetchSize;
+  }
+
+  /**
+   * Sets the fetch size of the selects whose rows are streamed to a {@link org.apache.ibatis.cursor.Cursor} or a
+   * {@link ResultHandler} and that do not set a fetch size themselves. When not set, 1000 is used for a database id
+   * starting with {@code postgres} and nothing otherwise, since some drivers reject any other statement on the
+   * connection while a result set is streamed, e.g. with {@code Integer.MIN_VALUE} on MySQL. Zero leaves the fetch size
+   * unchanged.
+   *
+   * @param streamingFetchSize the fetch size of streamed selects
+   * @since 3.5.4
+   */
+  public void setStreamingFetchSize(Integer streamingFetchSize) {
+    this.streamingFetchSize = streamingFetchSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public Integer getFetchBufferSize() {
+    return fetchBufferSize;
+  }
+
+  /**
+   * Sets the number of bytes a fetch of a streamed select may take. When set, the fetch size of the result set is
+   * grown to the number of rows of the estimated row width that fit in it.
+   *
+   * @param fetchBufferSize the number of bytes per fetch
+   * @since 3.5.4
+   */
+  public void setFetchBufferSize(Integer fetchBufferSize) {
+    this.fetchBufferSize = fetchBufferSize;
+  }
+
   /**
    * @since 3.5.2
    */
@@ -656,6 +1117,104 @@ public class Configuration {
     return caches.containsKey(id);
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public void addCacheStatistics(CacheStatistics statistics) {
+    cacheStatistics.put(statistics.getId(), statistics);
+    if (cacheStatisticsMBeansEnabled) {
+      try {
+        statistics.registerMBean(ManagementFactory.getPlatformMBeanServer(), cacheStatisticsScope);
+      } catch (JMException e) {
+        throw new CacheException("Could not register the statistics of cache " + statistics.getId() + ".  Cause: " + e, e);
+      }
+    }
+  }
+
+  /**
+   * Unregisters the MBeans of the cache statistics, to be called when this configuration is discarded so that the
+   * MBean server does not keep them.
+   *
+   * @since 3.5.4
+   */
+  public void unregisterCacheStatisticsMBeans() {
+    for (CacheStatistics statistics : cacheStatistics.values()) {
+      try {
+        statistics.unregisterMBean(ManagementFactory.getPlatformMBeanServer());
+      } catch (JMException e) {
+        throw new CacheException("Could not unregister the statistics of cache " + statistics.getId() + ".  Cause: " + e, e);
+      }
+    }
+  }
+
+  /**
+   * Marks a cache as read-only, i.e. as returning the same instances to all sessions. Only the loads of read-only
+   * caches are coalesced.
+   *
+   * @param id the cache id, i.e. its namespace
+   * @since 3.5.4
+   */
+  public void addReadOnlyCache(String id) {
+    readOnlyCacheIds.add(id);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isReadOnlyCache(String id) {
+    return readOnlyCacheIds.contains(id);
+  }
+
+  /**
+   * Gets the live statistics of a cache.
+   *
+   * @param id the cache id, i.e. its namespace
+   * @return the statistics, or null if there is no cache with this id
+   * @since 3.5.4
+   */
+  public CacheStatistics getCacheStatistics(String id) {
+    return cacheStatistics.get(id);
+  }
+
+  /**
+   * Takes a snapshot of the statistics of all caches.
+   *
+   * @return the snapshots by cache id
+   * @since 3.5.4
+   */
+  public Map<String, CacheStatistics.Snapshot> getCacheStatisticsSnapshot() {
+    Map<String, CacheStatistics.Snapshot> snapshots = new LinkedHashMap<>();
+    for (CacheStatistics statistics : cacheStatistics.values()) {
+      snapshots.put(statistics.getId(), statistics.snapshot());
+    }
+    return snapshots;
+  }
+
+  /**
+   * Gets the live mapping statistics of a statement, they are created on first use.
+   *
+   * @param statementId the id of the mapped statement
+   * @return the statistics
+   * @since 3.5.4
+   */
+  public MappingStatistics getMappingStatistics(String statementId) {
+    return mappingStatistics.computeIfAbsent(statementId, MappingStatistics::new);
+  }
+
+  /**
+   * Takes a snapshot of the mapping statistics of all statements whose results were mapped.
+   *
+   * @return the snapshots by statement id, sorted by id
+   * @since 3.5.4
+   */
+  public Map<String, MappingStatistics.Snapshot> getMappingStatisticsSnapshot() {
+    Map<String, MappingStatistics.Snapshot> snapshots = new TreeMap<>();
+    for (MappingStatistics statistics : mappingStatistics.values()) {
+      snapshots.put(statistics.getId(), statistics.snapshot());
+    }
+    return snapshots;
+  }
+
   public void addResultMap(ResultMap rm) {
     resultMaps.put(rm.getId(), rm);
     checkLocallyForDiscriminatedNestedResultMaps(rm);
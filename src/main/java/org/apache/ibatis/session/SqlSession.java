@@ -22,6 +22,8 @@ import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.reactive.CursorPublisher;
+import org.apache.ibatis.reactive.Publisher;
 
 /**
  * The primary Java interface for working with MyBatis.
@@ -143,6 +145,48 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Publisher offers the same results as a Cursor, except the rows are read on another thread as far as the
+   * subscriber requested them. The statement is executed when the first item is requested, and the session must not
+   * be used until the subscriber is completed or has cancelled the subscription.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return Publisher of mapped objects
+   * @since 3.5.4
+   */
+  default <T> Publisher<T> selectPublisher(String statement) {
+    return selectPublisher(statement, null);
+  }
+
+  /**
+   * A Publisher offers the same results as a Cursor, except the rows are read on another thread as far as the
+   * subscriber requested them. The statement is executed when the first item is requested, and the session must not
+   * be used until the subscriber is completed or has cancelled the subscription.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Publisher of mapped objects
+   * @since 3.5.4
+   */
+  default <T> Publisher<T> selectPublisher(String statement, Object parameter) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  /**
+   * A Publisher offers the same results as a Cursor, except the rows are read on another thread as far as the
+   * subscriber requested them. The statement is executed when the first item is requested, and the session must not
+   * be used until the subscriber is completed or has cancelled the subscription.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Publisher of mapped objects
+   * @since 3.5.4
+   */
+  default <T> Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return new CursorPublisher<>(() -> selectCursor(statement, parameter, rowBounds), getConfiguration().getPublisherExecutor());
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -27,6 +27,7 @@ import java.util.Properties;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.reactive.Publisher;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -196,6 +197,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement) {
+    return sqlSessionProxy.selectPublisher(statement);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter) {
+    return sqlSessionProxy.selectPublisher(statement, parameter);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.selectPublisher(statement, parameter, rowBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.selectList(statement);
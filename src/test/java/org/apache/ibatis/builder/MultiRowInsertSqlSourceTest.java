@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertSqlSourceTest {
+
+  @Test
+  void shouldFindTheValuesRow() {
+    String sql = "insert into t (a, b) VALUES (?, lower(?)) on conflict do nothing";
+    assertArrayEquals(new int[] { 28, 41 }, MultiRowInsertSqlSource.findValuesRow(sql));
+  }
+
+  @Test
+  void shouldIgnoreParenthesesInLiterals() {
+    String sql = "insert into t (a, b) values(?, ')values(')";
+    assertArrayEquals(new int[] { 27, sql.length() }, MultiRowInsertSqlSource.findValuesRow(sql));
+  }
+
+  @Test
+  void shouldRejectParametersOutsideOfTheRow() {
+    assertThrows(BuilderException.class,
+        () -> MultiRowInsertSqlSource.findValuesRow("insert into t (a) values (?) on conflict (a) do update set b = ?"));
+    assertThrows(BuilderException.class,
+        () -> MultiRowInsertSqlSource.findValuesRow("insert into t (a) values (?), (?)"));
+    assertThrows(BuilderException.class,
+        () -> MultiRowInsertSqlSource.findValuesRow("insert into t (a) select a from s where b = ?"));
+  }
+
+}
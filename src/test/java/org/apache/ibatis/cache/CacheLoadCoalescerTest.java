@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CacheLoadCoalescerTest {
+
+  private final CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+  private final Cache cache = new PerpetualCache("default");
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldShareAConcurrentLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> first = executor.submit(() -> coalescer.load(cache, "key", 10000, () -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return "value";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    CountDownLatch waiting = new CountDownLatch(4);
+    List<Future<String>> others = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      others.add(executor.submit(() -> {
+        waiting.countDown();
+        return coalescer.load(cache, "key", 10000, () -> {
+          loads.incrementAndGet();
+          return "other";
+        });
+      }));
+    }
+    assertTrue(waiting.await(5, TimeUnit.SECONDS));
+    // let the other threads reach the load
+    Thread.sleep(200);
+    release.countDown();
+    assertEquals("value", first.get(5, TimeUnit.SECONDS));
+    for (Future<String> other : others) {
+      assertEquals("value", other.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    assertEquals(0, coalescer.getLoadCount());
+  }
+
+  @Test
+  void shouldLoadOnItsOwnWhenTheConcurrentLoadFails() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> first = executor.submit(() -> coalescer.load(cache, "key", 10000, () -> {
+      loading.countDown();
+      await(release);
+      throw new SQLException("failed");
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    Future<String> second = executor.submit(() -> coalescer.load(cache, "key", 10000, () -> "other"));
+    release.countDown();
+    ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof SQLException);
+    assertEquals("other", second.get(5, TimeUnit.SECONDS));
+    assertEquals(0, coalescer.getLoadCount());
+  }
+
+  @Test
+  void shouldLoadOnItsOwnAfterTheTimeout() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> first = executor.submit(() -> coalescer.load(cache, "key", 10000, () -> {
+      loading.countDown();
+      await(release);
+      return "value";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    assertEquals("other", coalescer.load(cache, "key", 50, () -> "other"));
+    release.countDown();
+    assertEquals("value", first.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldNotWaitForALoadOfTheCurrentThread() throws Exception {
+    long start = System.currentTimeMillis();
+    String value = coalescer.load(cache, "key", 10000, () -> coalescer.load(cache, "key", 10000, () -> "nested"));
+    assertEquals("nested", value);
+    assertTrue(System.currentTimeMillis() - start < 5000);
+    assertEquals(0, coalescer.getLoadCount());
+  }
+
+  @Test
+  void shouldNotShareLoadsOfDifferentKeysOrCaches() throws Exception {
+    assertEquals("a", coalescer.load(cache, "a", 1000, () -> "a"));
+    assertEquals("b", coalescer.load(cache, "b", 1000, () -> "b"));
+    assertEquals("c", coalescer.load(new PerpetualCache("default"), "a", 1000, () -> "c"));
+    assertEquals(0, coalescer.getLoadCount());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
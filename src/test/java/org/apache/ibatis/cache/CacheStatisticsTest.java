@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CacheStatisticsTest {
+
+  @Test
+  void shouldCountRequestsPutsRemovalsAndClears() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    Cache cache = new CacheBuilder("default").statistics(statistics).build();
+    cache.putObject(1, 1);
+    assertEquals(1, cache.getObject(1));
+    assertNull(cache.getObject(2));
+    cache.removeObject(1);
+    cache.clear();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(0.5, statistics.getHitRatio());
+    assertEquals(1, statistics.getPutCount());
+    assertEquals(1, statistics.getRemovalCount());
+    assertEquals(1, statistics.getClearCount());
+    statistics.reset();
+    assertEquals(0, statistics.getHitCount());
+  }
+
+  @Test
+  void shouldOnlyCountTheDeprecatedFieldsOfALegacyLoggingCache() {
+    CountingLoggingCache legacy = new CountingLoggingCache(new PerpetualCache("legacy"));
+    legacy.putObject(1, 1);
+    legacy.getObject(1);
+    legacy.getObject(2);
+    assertEquals(2, legacy.requests());
+    assertEquals(1, legacy.hits());
+
+    CacheStatistics statistics = new CacheStatistics("shared");
+    CountingLoggingCache shared = new CountingLoggingCache(new PerpetualCache("shared"), statistics);
+    shared.putObject(1, 1);
+    shared.getObject(1);
+    assertEquals(0, shared.requests());
+    assertEquals(1, statistics.getHitCount());
+  }
+
+  @Test
+  void shouldCountEvictionsOfBoundedCaches() {
+    CacheStatistics lru = new CacheStatistics("lru");
+    fill(new CacheBuilder("lru").size(2).statistics(lru).build());
+    assertEquals(3, lru.getEvictionCount());
+    assertEquals(2, lru.getSize());
+
+    CacheStatistics fifo = new CacheStatistics("fifo");
+    fill(new CacheBuilder("fifo").addDecorator(FifoCache.class).size(2).statistics(fifo).build());
+    assertEquals(3, fifo.getEvictionCount());
+
+    CacheStatistics concurrent = new CacheStatistics("concurrent");
+    fill(new CacheBuilder("concurrent").implementation(ConcurrentCache.class).size(2).statistics(concurrent).build());
+    assertEquals(3, concurrent.getEvictionCount());
+    assertEquals(2, concurrent.snapshot().getSize());
+  }
+
+  @Test
+  void shouldRegisterAsMBean() throws Exception {
+    CacheStatistics statistics = new CacheStatistics("org.apache.ibatis.Mapper");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = statistics.registerMBean(server, "test");
+    try {
+      statistics.recordHit();
+      assertEquals(1L, server.getAttribute(name, "HitCount"));
+      // the statistics of a cache with the same id and scope are not silently replaced
+      assertThrows(InstanceAlreadyExistsException.class,
+          () -> new CacheStatistics("org.apache.ibatis.Mapper").registerMBean(server, "test"));
+      assertEquals(1L, server.getAttribute(name, "HitCount"));
+    } finally {
+      statistics.unregisterMBean(server);
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  void shouldRegisterTheCachesOfEachConfigurationUnderTheirOwnNames() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    Configuration first = new Configuration();
+    Configuration second = new Configuration();
+    first.setCacheStatisticsMBeansEnabled(true);
+    second.setCacheStatisticsMBeansEnabled(true);
+    try {
+      first.addCacheStatistics(new CacheStatistics("org.apache.ibatis.Mapper"));
+      second.addCacheStatistics(new CacheStatistics("org.apache.ibatis.Mapper"));
+      assertEquals(2, server.queryNames(null, query("org.apache.ibatis.Mapper")).size());
+    } finally {
+      first.unregisterCacheStatisticsMBeans();
+      second.unregisterCacheStatisticsMBeans();
+    }
+    assertTrue(server.queryNames(null, query("org.apache.ibatis.Mapper")).isEmpty());
+  }
+
+  @Test
+  void shouldNotKeepTheCacheAlive() throws Exception {
+    CacheStatistics statistics = new CacheStatistics("org.apache.ibatis.Mapper");
+    Cache cache = new PerpetualCache("org.apache.ibatis.Mapper");
+    WeakReference<Cache> reference = new WeakReference<>(cache);
+    statistics.setCache(cache);
+    fill(cache);
+    assertEquals(5, statistics.getSize());
+    cache = null;
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+    assertEquals(0, statistics.getSize());
+  }
+
+  private static ObjectName query(String id) {
+    try {
+      return new ObjectName("org.apache.ibatis:type=CacheStatistics,id=" + ObjectName.quote(id) + ",*");
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  static class CountingLoggingCache extends LoggingCache {
+
+    CountingLoggingCache(Cache delegate) {
+      super(delegate);
+    }
+
+    CountingLoggingCache(Cache delegate, CacheStatistics statistics) {
+      super(delegate, statistics);
+    }
+
+    int requests() {
+      return requests;
+    }
+
+    int hits() {
+      return hits;
+    }
+  }
+
+  private static void fill(Cache cache) {
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+  }
+
+}
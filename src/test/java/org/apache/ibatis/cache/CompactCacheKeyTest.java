@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class CompactCacheKeyTest {
+
+  @Test
+  void shouldBeEqualWhenTheComponentsAreEqual() {
+    Date date = new Date();
+    CacheKey key1 = CompactCacheKey.builder(4).updateAll(1, "hello", null, new Date(date.getTime())).build();
+    CacheKey key2 = CompactCacheKey.builder(1).updateAll(1, "hello", null, new Date(date.getTime())).build();
+    assertEquals(key1, key2);
+    assertEquals(key2, key1);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+    assertSame(key1.toString(), key1.toString());
+    assertEquals(4, key1.getUpdateCount());
+  }
+
+  @Test
+  void shouldNotBeEqualWhenTheOrderDiffers() {
+    CacheKey key1 = CompactCacheKey.builder(3).updateAll(1, "hello", null).build();
+    CacheKey key2 = CompactCacheKey.builder(3).updateAll(1, null, "hello").build();
+    assertNotEquals(key1, key2);
+    assertNotEquals(key1.hashCode(), key2.hashCode());
+    assertNotEquals(key1.toString(), key2.toString());
+  }
+
+  @Test
+  void shouldCompareArraysByContent() {
+    CacheKey key1 = CompactCacheKey.builder(1).update(new byte[] { 1 }).build();
+    CacheKey key2 = CompactCacheKey.builder(1).update(new byte[] { 1 }).build();
+    assertEquals(key1, key2);
+  }
+
+  @Test
+  void shouldBeEqualToAMutableKeyWithTheSameComponents() {
+    CacheKey compact = CompactCacheKey.builder(2).updateAll(1, "hello", new byte[] { 1 }).build();
+    CacheKey mutable = new CacheKey(new Object[] { 1, "hello", new byte[] { 1 } });
+    assertEquals(compact, mutable);
+    assertEquals(mutable, compact);
+    assertEquals(mutable.hashCode(), compact.hashCode());
+    assertEquals(CompactCacheKey.builder(0).build(), new CacheKey());
+    assertEquals(new CacheKey(), CompactCacheKey.builder(0).build());
+  }
+
+  @Test
+  void shouldNotBeEqualToAMutableKeyWithOtherComponents() {
+    CacheKey compact = CompactCacheKey.builder(2).updateAll(1, "hello").build();
+    CacheKey mutable = new CacheKey(new Object[] { 1, "world" });
+    assertNotEquals(compact, mutable);
+    assertNotEquals(mutable, compact);
+    mutable = new CacheKey(new Object[] { 1, "hello", null });
+    assertNotEquals(compact, mutable);
+    assertNotEquals(mutable, compact);
+  }
+
+  @Test
+  void shouldNotBeUpdatable() throws Exception {
+    CacheKey key = CompactCacheKey.builder(1).update("hello").build();
+    assertThrows(CacheException.class, () -> key.update("world"));
+    assertThrows(CacheException.class, () -> key.updateAll(new Object[] { "world" }));
+    CacheKey clone = key.clone();
+    clone.update("world");
+    assertEquals(new CacheKey(new Object[] { "hello", "world" }), clone);
+    assertEquals(1, key.getUpdateCount());
+  }
+
+  @Test
+  void shouldBuildOnlyOnce() {
+    CompactCacheKey.Builder builder = CompactCacheKey.builder(1).update("hello");
+    builder.build();
+    assertThrows(IllegalStateException.class, () -> builder.update("world"));
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+
+  @Test
+  void shouldSerialize() throws Exception {
+    CacheKey key = CompactCacheKey.builder(4).updateAll("serializable", 1).build();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    new ObjectOutputStream(baos).writeObject(key);
+    Object deserialized = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+    assertEquals(key, deserialized);
+    assertEquals(key.hashCode(), deserialized.hashCode());
+    assertEquals(key.toString(), deserialized.toString());
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCacheTest {
+
+  @Test
+  void shouldEvictEntriesNotReadSinceTheLastSweep() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertEquals(0, cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  void shouldBoundTheNumberOfCachedRows() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setMaximumWeight(5);
+    cache.putObject("a", Arrays.asList(1, 2, 3));
+    cache.putObject("b", Arrays.asList(4, 5));
+    assertEquals(5, cache.getWeight());
+    cache.putObject("c", Arrays.asList(6, 7));
+    assertNull(cache.getObject("a"));
+    assertNotNull(cache.getObject("c"));
+    assertEquals(4, cache.getWeight());
+    cache.putObject("b", Arrays.asList(4));
+    assertEquals(3, cache.getWeight());
+  }
+
+  @Test
+  void shouldExpireEntries() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setTimeToLive(50);
+    cache.putObject("short", "value");
+    cache.putObject("long", "value", 60000);
+    assertEquals("value", cache.getObject("short"));
+    Thread.sleep(100);
+    assertNull(cache.getObject("short"));
+    assertEquals("value", cache.getObject("long"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertNull(cache.removeObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(100);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int seed = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            int key = (i * 31 + seed) % 1000;
+            if (cache.getObject(key) == null) {
+              cache.putObject(key, key);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    cache.putObject(-1, -1);
+    assertTrue(cache.getSize() <= 100);
+    assertEquals(cache.getSize(), cache.getWeight());
+  }
+
+}
@@ -0,0 +1,167 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnACopyOfTheCachedValue() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+    cache.putObject("key", value);
+    Object cached = cache.getObject("key");
+    assertEquals(value, cached);
+    assertNotSame(value, cached);
+    assertNull(cache.getObject("missing"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldStoreSerializedValuesAsTheyAre() {
+    OffHeapCache offHeapCache = new OffHeapCache("default");
+    offHeapCache.setSerializer("java");
+    SerializedCache cache = new SerializedCache(offHeapCache);
+    cache.putObject("key", Arrays.asList(1, 2));
+    assertTrue(offHeapCache.getObject("key") instanceof byte[]);
+    assertEquals(Arrays.asList(1, 2), cache.getObject("key"));
+  }
+
+  @Test
+  void shouldBoundTheMemoryAndEvictTheOldestSlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1024);
+    cache.setMaximumBytes(2048);
+    CacheStatistics statistics = new CacheStatistics("default");
+    cache.setStatistics(statistics);
+    byte[] value = new byte[300];
+    for (int i = 0; i < 6; i++) {
+      cache.putObject(i, value);
+    }
+    // three values per slab, both slabs full
+    assertEquals(6, cache.getSize());
+    cache.putObject(6, value);
+    assertEquals(2048, cache.getAllocatedBytes());
+    for (int i = 0; i < 3; i++) {
+      assertNull(cache.getObject(i));
+    }
+    for (int i = 3; i < 7; i++) {
+      assertArrayEquals(value, (byte[]) cache.getObject(i));
+    }
+    assertEquals(4, cache.getSize());
+    assertEquals(3, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldOnlyEvictTheValuesStillInTheReusedSlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1024);
+    cache.setMaximumBytes(2048);
+    CacheStatistics statistics = new CacheStatistics("default");
+    cache.setStatistics(statistics);
+    byte[] value = new byte[300];
+    for (int i = 0; i < 3; i++) {
+      cache.putObject(i, value);
+    }
+    // 0 moves to the second slab and 1 is removed, only 2 is left in the first one
+    cache.putObject(0, value);
+    cache.removeObject(1);
+    cache.putObject(3, value);
+    cache.putObject(4, value);
+    cache.putObject(5, value);
+    assertArrayEquals(value, (byte[]) cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertNull(cache.getObject(2));
+    assertEquals(4, cache.getSize());
+    assertEquals(1, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldNotCacheValuesLargerThanASlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1024);
+    cache.putObject("key", new byte[10]);
+    cache.putObject("key", new byte[2048]);
+    assertNull(cache.getObject("key"));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveAndClear() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject("a", "1");
+    cache.putObject("b", "2");
+    assertEquals("1", cache.removeObject("a"));
+    assertNull(cache.getObject("a"));
+    cache.clear();
+    assertNull(cache.getObject("b"));
+    assertEquals(0, cache.getSize());
+    cache.putObject("c", "3");
+    assertEquals("3", cache.getObject("c"));
+  }
+
+  @Test
+  void shouldRejectASerializerThatDoesNotProduceBytes() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSerializer("copy");
+    Assertions.assertThrows(CacheException.class, () -> cache.putObject("key", "value"));
+  }
+
+  @Test
+  void shouldReadConsistentValuesWhileSlabsAreReused() throws Exception {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(4096);
+    cache.setMaximumBytes(4096 * 4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20000; i++) {
+            int key = (i * 7 + thread) % 500;
+            cache.putObject(key, "value" + key);
+            Object value = cache.getObject((key + 13) % 500);
+            if (value != null) {
+              assertEquals("value" + (key + 13) % 500, value);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(cache.getAllocatedBytes() <= 4096 * 4);
+  }
+
+}
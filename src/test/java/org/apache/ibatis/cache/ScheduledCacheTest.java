@@ -15,6 +15,12 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
@@ -37,6 +43,37 @@ class ScheduledCacheTest {
     assertEquals(0, cache.getSize());
   }
 
+  @Test
+  void shouldClearOnceWhenManyThreadsFindTheCacheStale() throws Exception {
+    AtomicInteger clears = new AtomicInteger();
+    ScheduledCache cache = new ScheduledCache(new PerpetualCache("DefaultCache") {
+      @Override
+      public void clear() {
+        clears.incrementAndGet();
+        super.clear();
+      }
+    });
+    cache.setClearInterval(50);
+    cache.putObject(0, 0);
+    Thread.sleep(100);
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        executor.submit(() -> {
+          start.await();
+          return cache.getObject(0);
+        });
+      }
+      start.countDown();
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, clears.get());
+  }
+
   @Test
   void shouldRemoveItemOnDemand() {
     Cache cache = new PerpetualCache("DefaultCache");
@@ -0,0 +1,173 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.CompactCacheSerializer;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class SerializedCacheTest {
+
+  @Test
+  void shouldReturnIndependentCopiesWithEachSerializer() {
+    for (String serializer : Arrays.asList("java", "compact", "copy")) {
+      SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+      cache.setSerializer(serializer);
+      Node parent = new Node("parent");
+      parent.children.add(new Node("child"));
+      parent.children.get(0).parent = parent;
+      cache.putObject(1, Collections.singletonList(parent));
+      parent.name = "changed after put";
+
+      Node copy = (Node) ((List<?>) cache.getObject(1)).get(0);
+      assertEquals("parent", copy.name, serializer);
+      assertSame(copy, copy.children.get(0).parent, serializer);
+      assertEquals(BigDecimal.TEN, copy.amount, serializer);
+      assertEquals(new Timestamp(1000), copy.created, serializer);
+      copy.name = "changed after get";
+      assertEquals("parent", ((Node) ((List<?>) cache.getObject(1)).get(0)).name, serializer);
+    }
+  }
+
+  @Test
+  void shouldCopyNonSerializableObjectsOnlyWithTheCopySerializer() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    assertThrows(CacheException.class, () -> cache.putObject(1, new NotSerializable()));
+    cache.setSerializer("copy");
+    NotSerializable value = new NotSerializable();
+    value.values.add(1);
+    cache.putObject(1, value);
+    NotSerializable copy = (NotSerializable) cache.getObject(1);
+    assertNotSame(value, copy);
+    assertEquals(value.values, copy.values);
+    assertNotSame(value.values, copy.values);
+  }
+
+  @Test
+  void shouldCopyJdkObjectsWithTheirWholeState() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    cache.setSerializer("copy");
+    JdkObjects value = new JdkObjects();
+    value.bits.set(5);
+    value.counter.set(42);
+    value.text.append("abc");
+    value.calendar = new GregorianCalendar(2001, Calendar.MARCH, 4);
+    value.recent.put("a", 1);
+    value.recent.put("b", 2);
+    value.recent.get("a");
+    cache.putObject(1, value);
+
+    JdkObjects copy = (JdkObjects) cache.getObject(1);
+    assertNotSame(value, copy);
+    assertEquals(value.bits, copy.bits);
+    assertEquals(42, copy.counter.get());
+    assertEquals("abc", copy.text.toString());
+    assertEquals(2001, copy.calendar.get(Calendar.YEAR));
+    assertEquals(value.calendar, copy.calendar);
+    assertNotSame(value.calendar, copy.calendar);
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<>(copy.recent.keySet()));
+    // still ordered by access
+    copy.recent.get("b");
+    assertEquals(Arrays.asList("a", "b"), new ArrayList<>(copy.recent.keySet()));
+  }
+
+  @Test
+  void shouldFailToCopyAFieldThatCannotBeCopied() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    cache.setSerializer("copy");
+    NotSerializableField value = new NotSerializableField();
+    assertThrows(CacheException.class, () -> cache.putObject(1, value));
+  }
+
+  @Test
+  void shouldWriteSmallerDataThanJavaSerialization() {
+    List<Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      nodes.add(new Node("node" + i));
+    }
+    CompactCacheSerializer compact = new CompactCacheSerializer();
+    byte[] data = (byte[]) compact.serialize(nodes);
+    assertTrue(data.length < ((byte[]) new JavaCacheSerializer().serialize(nodes)).length);
+    assertEquals(10, ((List<?>) compact.deserialize(data)).size());
+    // the same descriptors are used for every object
+    assertArrayEquals(data, (byte[]) compact.serialize(nodes));
+  }
+
+  @Test
+  void shouldConfigureTheSerializerWithACacheProperty() {
+    Properties properties = new Properties();
+    properties.setProperty("serializer", "copy");
+    Cache cache = new CacheBuilder("default").readWrite(true).properties(properties).build();
+    cache.putObject(1, new NotSerializable());
+    assertNotNull(cache.getObject(1));
+
+    properties.setProperty("serializer", "com.example.Unknown");
+    assertThrows(CacheException.class, () -> new CacheBuilder("default").readWrite(true).properties(properties).build());
+  }
+
+  static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+    String name;
+    BigDecimal amount = BigDecimal.TEN;
+    Timestamp created = new Timestamp(1000);
+    Node parent;
+    List<Node> children = new ArrayList<>();
+
+    Node() {
+    }
+
+    Node(String name) {
+      this.name = name;
+    }
+  }
+
+  static class NotSerializable {
+    List<Integer> values = new ArrayList<>();
+  }
+
+  static class JdkObjects {
+    BitSet bits = new BitSet();
+    AtomicLong counter = new AtomicLong();
+    StringBuilder text = new StringBuilder();
+    Calendar calendar;
+    Map<String, Integer> recent = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  static class NotSerializableField {
+    Object lock = new Object();
+  }
+
+}
@@ -0,0 +1,288 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPooledDataSourceTest extends BaseDataTest {
+
+  private ConcurrentPooledDataSource ds;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    ds.setPoolMaximumActiveConnections(3);
+    ds.setPoolMaximumIdleConnections(2);
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      connections.add(ds.getConnection());
+    }
+    assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+    for (Connection c : connections) {
+      c.close();
+    }
+    assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    assertEquals(3, ds.getPoolState().getRequestCount());
+    assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    assertEquals(0, ds.getPoolState().getHadToWaitCount());
+    assertNotNull(ds.getPoolState().toString());
+  }
+
+  @Test
+  void shouldReuseTheConnectionLastReturnedByTheSameThread() throws Exception {
+    Connection first = ds.getConnection();
+    Connection second = ds.getConnection();
+    Connection realSecond = PooledDataSource.unwrapConnection(second);
+    first.close();
+    second.close();
+    Connection again = ds.getConnection();
+    assertSame(realSecond, PooledDataSource.unwrapConnection(again));
+    again.close();
+  }
+
+  @Test
+  void shouldNotAllowAClosedHandleToReachTheRealConnection() throws Exception {
+    Connection c = ds.getConnection();
+    c.close();
+    Connection other = ds.getConnection();
+    assertThrows(SQLException.class, c::getAutoCommit);
+    assertFalse(other.isClosed());
+    c.close();
+    assertEquals(1, ds.getPoolState().getBadConnectionCount());
+    other.close();
+  }
+
+  @Test
+  void shouldFailAfterPoolTimeToWait() throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(100);
+    Connection c = ds.getConnection();
+    try {
+      SQLException e = assertThrows(SQLException.class, ds::getConnection);
+      assertTrue(e.getMessage().contains("Timed out"));
+      assertEquals(1, ds.getPoolState().getHadToWaitCount());
+    } finally {
+      c.close();
+    }
+  }
+
+  @Test
+  void shouldHandOffReturnedConnectionToWaitingThread() throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(10000);
+    Connection c = ds.getConnection();
+    Connection real = PooledDataSource.unwrapConnection(c);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Connection> waiting = executor.submit(() -> {
+        Connection conn = ds.getConnection();
+        Connection unwrapped = PooledDataSource.unwrapConnection(conn);
+        conn.close();
+        return unwrapped;
+      });
+      while (ds.getPoolState().getWaitingThreadCount() == 0) {
+        Thread.sleep(10);
+      }
+      c.close();
+      assertSame(real, waiting.get(5, TimeUnit.SECONDS));
+      assertEquals(1, ds.getPoolState().getHadToWaitCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldClaimOverdueConnection() throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCheckoutTime(50);
+    Connection leaked = ds.getConnection();
+    Thread.sleep(100);
+    Connection c = ds.getConnection();
+    assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+    assertThrows(SQLException.class, leaked::getAutoCommit);
+    c.close();
+    leaked.close();
+    assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldServeManyThreadsWithFewConnections() throws Exception {
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    ds.setPoolTimeToWait(10000);
+    int threads = 32;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < 50; j++) {
+            try (Connection conn = ds.getConnection()) {
+              conn.getAutoCommit();
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(threads * 50, ds.getPoolState().getRequestCount());
+    assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    assertTrue(ds.getPoolState().getIdleConnectionCount() <= 4);
+    assertEquals(0, ds.getPoolState().getBadConnectionCount());
+  }
+
+  @Test
+  void shouldKeepMinimumIdleConnectionsWarm() throws Exception {
+    ds.setPoolMaximumIdleConnections(5);
+    ds.setPoolMinimumIdleConnections(3);
+    ds.setPoolHousekeepingInterval(20);
+    ds.getConnection().close();
+    waitUntil(() -> ds.getPoolState().getIdleConnectionCount() >= 3);
+    assertEquals(1, ds.getPoolState().getRequestCount());
+  }
+
+  @Test
+  void shouldRetireIdleConnections() throws Exception {
+    ds.setPoolMaximumIdleConnections(5);
+    ds.setPoolMinimumIdleConnections(1);
+    ds.setPoolMaximumIdleTime(50);
+    ds.setPoolHousekeepingInterval(20);
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      connections.add(ds.getConnection());
+    }
+    for (Connection c : connections) {
+      c.close();
+    }
+    waitUntil(() -> ds.getPoolState().getIdleConnectionCount() == 1);
+  }
+
+  @Test
+  void shouldDiscardBrokenIdleConnectionsInBackground() throws Exception {
+    ds.setPoolMaximumIdleConnections(5);
+    ds.setPoolHousekeepingInterval(20);
+    Connection c = ds.getConnection();
+    Connection realConnection = PooledDataSource.unwrapConnection(c);
+    c.close();
+    realConnection.close();
+    waitUntil(() -> ds.getPoolState().getBadConnectionCount() == 1);
+    assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldReportConnectionHeldBeyondLeakDetectionThreshold() throws Exception {
+    List<Throwable> traces = new CopyOnWriteArrayList<>();
+    ds.setPoolLeakDetectionThreshold(50);
+    ds.setPoolMetricsListener(new PoolMetricsListener() {
+      @Override
+      public void connectionLeakSuspected(long checkoutMillis, Throwable checkoutTrace) {
+        traces.add(checkoutTrace);
+      }
+    });
+    Connection c = ds.getConnection();
+    waitUntil(() -> traces.size() == 1);
+    assertEquals(1, ds.getPoolState().getSuspectedLeakCount());
+    c.close();
+    assertEquals(1, ds.getPoolState().getSuspectedLeakCount());
+    assertTrue(ds.getPoolState().getCheckoutTimeHistogram().getMax() >= 50000);
+  }
+
+  @Test
+  void shouldNotifyListenerOfCheckoutsReturnsAndTimeouts() throws Exception {
+    AtomicInteger checkedOut = new AtomicInteger();
+    AtomicInteger returned = new AtomicInteger();
+    AtomicInteger timedOut = new AtomicInteger();
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(50);
+    ds.setPoolMetricsListener(new PoolMetricsListener() {
+      @Override
+      public void connectionCheckedOut(long requestMicros) {
+        checkedOut.incrementAndGet();
+      }
+
+      @Override
+      public void connectionReturned(long checkoutMicros) {
+        returned.incrementAndGet();
+      }
+
+      @Override
+      public void connectionRequestTimedOut(long requestMicros) {
+        timedOut.incrementAndGet();
+      }
+    });
+    Connection c = ds.getConnection();
+    assertThrows(SQLException.class, ds::getConnection);
+    c.close();
+    assertEquals(1, checkedOut.get());
+    assertEquals(1, returned.get());
+    assertEquals(1, timedOut.get());
+    assertEquals(1, ds.getPoolState().getRequestTimeHistogram().getCount());
+    assertEquals(1, ds.getPoolState().getCheckoutTimeHistogram().getCount());
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the housekeeper");
+      Thread.sleep(10);
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldReportPercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500, histogram.getMean());
+    assertWithin(500, histogram.getValueAtPercentile(50));
+    assertWithin(900, histogram.getValueAtPercentile(90));
+    assertWithin(990, histogram.getValueAtPercentile(99));
+    assertEquals(1000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  void shouldMapEveryValueToABucketContainingIt() {
+    long[] values = { 0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE };
+    for (long value : values) {
+      int index = LatencyHistogram.indexOf(value);
+      assertTrue(LatencyHistogram.upperBoundOf(index) >= value);
+      if (index > 0) {
+        assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  void shouldResetAndIgnoreNegativeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    histogram.record(-5);
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.125, "expected about " + expected + " but was " + actual);
+  }
+
+}
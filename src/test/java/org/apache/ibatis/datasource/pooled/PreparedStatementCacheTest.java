@@ -0,0 +1,166 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PreparedStatementCacheTest extends BaseDataTest {
+
+  private static final String SQL = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_USERS WHERE 1 = ?";
+  private static final String OTHER_SQL = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_USERS WHERE 2 = ?";
+
+  private PooledDataSource ds;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCachedStatements(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldReuseStatementAcrossCheckouts() throws Exception {
+    PreparedStatement real = prepareAndClose(SQL);
+    assertSame(real, prepareAndClose(SQL));
+  }
+
+  @Test
+  void shouldReuseStatementAcrossCheckoutsOfConcurrentPool() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCachedStatements(1);
+    PreparedStatement real = prepareAndClose(SQL);
+    assertSame(real, prepareAndClose(SQL));
+  }
+
+  @Test
+  void shouldNotReuseStatementWhenDisabled() throws Exception {
+    ds.setPoolMaximumCachedStatements(0);
+    PreparedStatement real = prepareAndClose(SQL);
+    assertTrue(real.isClosed());
+    assertNotSame(real, prepareAndClose(SQL));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedStatement() throws Exception {
+    PreparedStatement real = prepareAndClose(SQL);
+    PreparedStatement other = prepareAndClose(OTHER_SQL);
+    assertTrue(real.isClosed());
+    assertFalse(other.isClosed());
+    assertSame(other, prepareAndClose(OTHER_SQL));
+  }
+
+  @Test
+  void shouldPrepareAnotherStatementForSameSqlInUse() throws Exception {
+    try (Connection conn = ds.getConnection();
+        PreparedStatement first = conn.prepareStatement(SQL);
+        PreparedStatement second = conn.prepareStatement(SQL)) {
+      assertNotSame(first.unwrap(PreparedStatement.class), second.unwrap(PreparedStatement.class));
+    }
+  }
+
+  @Test
+  void shouldResetStatementWhenClosed() throws Exception {
+    try (Connection conn = ds.getConnection()) {
+      PreparedStatement stmt = conn.prepareStatement(SQL);
+      int fetchSize = stmt.getFetchSize();
+      int maxFieldSize = stmt.getMaxFieldSize();
+      boolean poolable = stmt.isPoolable();
+      stmt.setFetchSize(fetchSize + 10);
+      stmt.setMaxRows(5);
+      stmt.setMaxFieldSize(maxFieldSize + 10);
+      stmt.setPoolable(!poolable);
+      stmt.setInt(1, 1);
+      assertSame(conn, stmt.getConnection());
+      stmt.close();
+      assertTrue(stmt.isClosed());
+      assertThrows(SQLException.class, stmt::executeQuery);
+
+      stmt = conn.prepareStatement(SQL);
+      assertEquals(fetchSize, stmt.getFetchSize());
+      assertEquals(0, stmt.getMaxRows());
+      assertEquals(maxFieldSize, stmt.getMaxFieldSize());
+      assertEquals(poolable, stmt.isPoolable());
+      assertThrows(SQLException.class, stmt::executeQuery);
+      stmt.setInt(1, 1);
+      try (ResultSet rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+      }
+      stmt.close();
+    }
+  }
+
+  @Test
+  void shouldNotCacheStatementWithEscapeProcessingChanged() throws Exception {
+    try (Connection conn = ds.getConnection()) {
+      PreparedStatement stmt = conn.prepareStatement(SQL);
+      PreparedStatement real = stmt.unwrap(PreparedStatement.class);
+      stmt.setEscapeProcessing(false);
+      stmt.close();
+      assertTrue(real.isClosed());
+      try (PreparedStatement again = conn.prepareStatement(SQL)) {
+        assertNotSame(real, again.unwrap(PreparedStatement.class));
+      }
+    }
+  }
+
+  @Test
+  void shouldNotCacheStatementClosedByDriver() throws Exception {
+    try (Connection conn = ds.getConnection()) {
+      PreparedStatement stmt = conn.prepareStatement(SQL);
+      PreparedStatement real = stmt.unwrap(PreparedStatement.class);
+      real.close();
+      stmt.close();
+      try (PreparedStatement again = conn.prepareStatement(SQL)) {
+        assertNotSame(real, again.unwrap(PreparedStatement.class));
+      }
+    }
+  }
+
+  private PreparedStatement prepareAndClose(String sql) throws SQLException {
+    try (Connection conn = ds.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setInt(1, 1);
+      try (ResultSet rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+      }
+      return stmt.unwrap(PreparedStatement.class);
+    }
+  }
+
+}
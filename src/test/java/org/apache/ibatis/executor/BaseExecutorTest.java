@@ -29,6 +29,7 @@ import javassist.util.proxy.Proxy;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
@@ -130,6 +131,22 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldCreateAnUpdatableCacheKey() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      CacheKey key = executor.createCacheKey(selectStatement, null, RowBounds.DEFAULT, selectStatement.getBoundSql(null));
+      int updateCount = key.getUpdateCount();
+      // interceptors such as pagination plugins extend the key
+      key.update("page");
+      assertEquals(updateCount + 1, key.getUpdateCount());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   void shouldInsertNewAuthorWithAutoKey() throws Exception {
 
@@ -18,6 +18,7 @@ package org.apache.ibatis.executor.resultset;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -41,9 +42,11 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.junit.jupiter.api.Assertions;
@@ -101,6 +104,82 @@ class DefaultResultSetHandlerTest {
     assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
   }
 
+  @Test
+  void shouldReuseTheRowMappingPlanAcrossExecutions() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    final ResultMap resultMap = ms.getResultMaps().get(0);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(false).thenReturn(true).thenReturn(false);
+    when(rs.getInt("CoLuMn1")).thenReturn(100).thenReturn(200);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final RowMappingPlan.Key key = new RowMappingPlan.Key(null, new RowMappingPlan.ColumnSignature(
+        Collections.singletonList("CoLuMn1"), Collections.singletonList(JdbcType.INTEGER),
+        Collections.singletonList(Integer.class.getCanonicalName())), false, AutoMappingUnknownColumnBehavior.NONE);
+    Assertions.assertNull(resultMap.getRowMappingPlan(key));
+
+    List<Object> results = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleResultSets(stmt);
+    assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
+    final RowMappingPlan plan = resultMap.getRowMappingPlan(key);
+    Assertions.assertNotNull(plan);
+    assertEquals(1, plan.getPropertyMappings().length);
+    assertEquals("CoLuMn1", plan.getPropertyMappings()[0].column);
+
+    results = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleResultSets(stmt);
+    assertEquals(200, ((HashMap) results.get(0)).get("cOlUmN1"));
+    Assertions.assertSame(plan, resultMap.getRowMappingPlan(key));
+  }
+
+  @Test
+  void shouldReadMappedColumnsByIndex() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setUseColumnIndex(true);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(100);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleResultSets(stmt);
+    assertEquals(1, results.size());
+    assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
+  }
+
+  @Test
+  void shouldGrowFetchSizeOfCursorToFetchBuffer() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setFetchBufferSize(1000);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getFetchSize()).thenReturn(10);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnDisplaySize(1)).thenReturn(10);
+
+    new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds(0, 100)).handleCursorResultSets(stmt);
+    verify(rs).setFetchSize(100);
+  }
+
   @Test
   void shouldThrowExceptionWithColumnName() throws Exception {
     final MappedStatement ms = getMappedStatement();
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.executor.statement;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -145,4 +147,71 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void notApplyStreamingFetchSizeByDatabaseId() throws SQLException {
+        doReturn("mysql").when(configuration).getDatabaseId();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+
+        assertNull(handler.applyStreamingFetchSize(statement)); // streaming must be enabled explicitly
+        verifyZeroInteractions(statement);
+    }
+
+    @Test
+    void applyDefaultStreamingFetchSizeOfPostgreSql() throws SQLException {
+        doReturn("postgresql").when(configuration).getDatabaseId();
+        doReturn(0).when(statement).getFetchSize();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+
+        assertEquals(Integer.valueOf(0), handler.applyStreamingFetchSize(statement));
+        verify(statement).setFetchSize(1000); // streams through a server side cursor
+    }
+
+    @Test
+    void notApplyDefaultStreamingFetchSizeWhenDisabled() throws SQLException {
+        doReturn("postgresql").when(configuration).getDatabaseId();
+        configuration.setStreamingFetchSize(0);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+
+        assertNull(handler.applyStreamingFetchSize(statement));
+        verifyZeroInteractions(statement);
+    }
+
+    @Test
+    void specifyStreamingFetchSize() throws SQLException {
+        configuration.setStreamingFetchSize(500);
+        doReturn(10).when(statement).getFetchSize();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        Integer fetchSize = handler.applyStreamingFetchSize(statement);
+        handler.restoreFetchSize(statement, fetchSize);
+
+        verify(statement).setFetchSize(500); // apply a streaming fetch size
+        verify(statement).setFetchSize(10); // restore the fetch size
+    }
+
+    @Test
+    void notApplyStreamingFetchSizeWithMappedStatementFetchSize() throws SQLException {
+        configuration.setStreamingFetchSize(500);
+        mappedStatementBuilder.fetchSize(100);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+
+        assertNull(handler.applyStreamingFetchSize(statement));
+        verifyZeroInteractions(statement);
+    }
+
+    @Test
+    void applyStreamingFetchSizeOfMySql() throws SQLException {
+        configuration.setStreamingFetchSize(Integer.MIN_VALUE);
+        doReturn(0).when(statement).getFetchSize();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+
+        assertEquals(Integer.valueOf(0), handler.applyStreamingFetchSize(statement));
+        verify(statement).setFetchSize(Integer.MIN_VALUE); // enable the row by row streaming of the driver
+    }
+
 }
@@ -17,16 +17,21 @@ package org.apache.ibatis.jdbc;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.ref.WeakReference;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PoolMetricsListener;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.jupiter.api.Disabled;
@@ -136,6 +141,123 @@ class PooledDataSourceTest extends BaseDataTest {
     con.close();
   }
 
+  @Test
+  void shouldKeepMinimumIdleConnectionsWarm() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumIdleConnections(5);
+      ds.setPoolMinimumIdleConnections(3);
+      ds.setPoolHousekeepingInterval(20);
+      ds.getConnection().close();
+      waitUntil(() -> ds.getPoolState().getIdleConnectionCount() >= 3);
+      assertEquals(1, ds.getPoolState().getRequestCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldRetireIdleConnections() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumIdleConnections(5);
+      ds.setPoolMinimumIdleConnections(1);
+      ds.setPoolMaximumIdleTime(50);
+      ds.setPoolHousekeepingInterval(20);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      waitUntil(() -> ds.getPoolState().getIdleConnectionCount() == 1);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldDiscardBrokenIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolHousekeepingInterval(20);
+      Connection c = ds.getConnection();
+      Connection realConnection = PooledDataSource.unwrapConnection(c);
+      c.close();
+      realConnection.close();
+      waitUntil(() -> ds.getPoolState().getBadConnectionCount() == 1);
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldCollectAnAbandonedPoolWithAHousekeeper() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolHousekeepingInterval(20);
+    ds.setPoolLeakDetectionThreshold(1000);
+    ds.getConnection().close();
+    WeakReference<PooledDataSource> reference = new WeakReference<>(ds);
+    ds = null;
+    waitUntil(() -> {
+      System.gc();
+      return reference.get() == null;
+    });
+  }
+
+  @Test
+  void shouldReportConnectionHeldBeyondLeakDetectionThreshold() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    List<Throwable> traces = new CopyOnWriteArrayList<>();
+    try {
+      ds.setPoolLeakDetectionThreshold(50);
+      ds.setPoolMetricsListener(new PoolMetricsListener() {
+        @Override
+        public void connectionLeakSuspected(long checkoutMillis, Throwable checkoutTrace) {
+          traces.add(checkoutTrace);
+        }
+      });
+      Connection c = ds.getConnection();
+      waitUntil(() -> traces.size() == 1);
+      assertEquals(1, ds.getPoolState().getSuspectedLeakCount());
+      assertTrue(Arrays.stream(traces.get(0).getStackTrace())
+          .anyMatch(element -> element.getMethodName().equals("shouldReportConnectionHeldBeyondLeakDetectionThreshold")));
+      c.close();
+      assertEquals(1, ds.getPoolState().getSuspectedLeakCount());
+      assertEquals(1, ds.getPoolState().getCheckoutTimeHistogram().getCount());
+      assertTrue(ds.getPoolState().getCheckoutTimeHistogram().getMax() >= 50000);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldRecordRequestAndCheckoutTimes() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      for (int i = 0; i < 3; i++) {
+        ds.getConnection().close();
+      }
+      assertEquals(3, ds.getPoolState().getRequestTimeHistogram().getCount());
+      assertEquals(3, ds.getPoolState().getCheckoutTimeHistogram().getCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getWaitingThreadCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the housekeeper");
+      Thread.sleep(10);
+    }
+  }
+
   private void exexuteQuery(Connection con) throws SQLException {
     try (PreparedStatement st = con.prepareStatement("select 1");
          ResultSet rs = st.executeQuery()) {
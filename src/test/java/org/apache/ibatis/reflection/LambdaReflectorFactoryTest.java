@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.junit.jupiter.api.Test;
+
+class LambdaReflectorFactoryTest {
+
+  @Test
+  void shouldGenerateInvokersForPublicAccessors() throws Exception {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Author.class);
+    assertTrue(reflector.getSetInvoker("id") instanceof LambdaMethodInvoker);
+    assertTrue(reflector.getGetInvoker("username") instanceof LambdaMethodInvoker);
+
+    Author author = new Author();
+    reflector.getSetInvoker("id").invoke(author, new Object[] { 101 });
+    reflector.getSetInvoker("username").invoke(author, new Object[] { "jim" });
+    assertEquals(101, reflector.getGetInvoker("id").invoke(author, null));
+    assertEquals("jim", reflector.getGetInvoker("username").invoke(author, null));
+    assertEquals(int.class, reflector.getSetInvoker("id").getType());
+  }
+
+  @Test
+  void shouldWrapExceptionsAsReflectionDoes() {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Author.class);
+    InvocationTargetException e = assertThrows(InvocationTargetException.class,
+        () -> reflector.getSetInvoker("id").invoke(new Author(), new Object[] { null }));
+    assertTrue(e.getCause() instanceof NullPointerException);
+  }
+
+  @Test
+  void shouldFallBackToReflectionForNonPublicClasses() throws Exception {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Bean.class);
+    assertFalse(reflector.getSetInvoker("name") instanceof LambdaMethodInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof MethodInvoker);
+
+    Bean bean = new Bean();
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "name" });
+    assertEquals("name", bean.getName());
+  }
+
+  @Test
+  void shouldSetPropertiesThroughMetaObject() {
+    MetaObject metaObject = MetaObject.forObject(new Author(), SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, new LambdaReflectorFactory());
+    metaObject.setValue("email", "jim@example.com");
+    metaObject.setValue("bio", null);
+    assertEquals("jim@example.com", metaObject.getValue("email"));
+    assertNull(metaObject.getValue("bio"));
+  }
+
+  static class Bean {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+}
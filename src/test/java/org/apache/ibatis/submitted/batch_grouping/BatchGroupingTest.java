@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchGroupingTest {
+
+  private static final String INSERT_PARENT = "org.apache.ibatis.submitted.batch_grouping.Mapper.insertParent";
+  private static final String INSERT_CHILD = "org.apache.ibatis.submitted.batch_grouping.Mapper.insertChild";
+  private static final String UPDATE_PARENT = "org.apache.ibatis.submitted.batch_grouping.Mapper.updateParent";
+  private static final String DELETE_CHILDREN = "org.apache.ibatis.submitted.batch_grouping.Mapper.deleteChildren";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedInserts() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertParent(i, "parent" + i);
+        mapper.insertChild(i * 10, i, "child" + i);
+        mapper.insertChild(i * 10 + 1, i, "child" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(Arrays.asList(INSERT_PARENT, INSERT_CHILD), statementIds(results));
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(6, results.get(1).getUpdateCounts().length);
+      assertEquals(6, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldNotMoveInsertsAcrossOtherStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "parent1");
+      mapper.insertChild(10, 1, "child1");
+      mapper.insertParent(2, "parent2");
+      mapper.updateParent(2, "updated");
+      mapper.deleteChildren();
+      mapper.insertParent(3, "parent3");
+      mapper.insertChild(20, 2, "child2");
+      mapper.insertChild(30, 3, "child3");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(Arrays.asList(INSERT_PARENT, INSERT_CHILD, UPDATE_PARENT, DELETE_CHILDREN, INSERT_PARENT, INSERT_CHILD),
+          statementIds(results));
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(2, results.get(5).getUpdateCounts().length);
+      assertEquals("updated", mapper.selectParentName(2));
+      assertEquals(2, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldOnlyReuseTheLastBatchWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setBatchGroupingEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "parent1");
+      mapper.insertChild(10, 1, "child1");
+      mapper.insertParent(2, "parent2");
+      mapper.insertChild(20, 2, "child2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(Arrays.asList(INSERT_PARENT, INSERT_CHILD, INSERT_PARENT, INSERT_CHILD), statementIds(results));
+    }
+  }
+
+  private static List<String> statementIds(List<BatchResult> results) {
+    String[] ids = new String[results.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = results.get(i).getMappedStatement().getId();
+    }
+    return Arrays.asList(ids);
+  }
+
+}
@@ -0,0 +1,128 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_size;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchSizeTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_size/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_size/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadTheBatchSizes() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertEquals(Integer.valueOf(100), configuration.getDefaultBatchSize());
+    assertEquals(Integer.valueOf(4), configuration.getMaxBatchRows());
+    assertEquals(Integer.valueOf(2), configuration.getMappedStatement("org.apache.ibatis.submitted.batch_size.Mapper.insertInPairs").getBatchSize());
+    assertEquals(Integer.valueOf(3), configuration.getMappedStatement("org.apache.ibatis.submitted.batch_size.Mapper.renameItem").getBatchSize());
+    assertEquals(null, configuration.getMappedStatement("org.apache.ibatis.submitted.batch_size.Mapper.insertItem").getBatchSize());
+  }
+
+  @Test
+  void shouldKeepTheExecutedBatchesUntilTheFlush() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertInPairs(i, "item" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      // the two batches executed before the flush are kept as their total update count, without parameter objects
+      assertEquals(2, results.size());
+      assertArrayEquals(new int[] { 4 }, results.get(0).getUpdateCounts());
+      assertTrue(results.get(0).getParameterObjects().isEmpty());
+      assertEquals(1, results.get(1).getUpdateCounts().length);
+      assertEquals(1, results.get(1).getParameterObjects().size());
+      assertEquals(5, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldReportTheExecutedBatchesToTheListener() {
+    List<BatchResult> reported = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchResultListener(reported::add);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertInPairs(i, "item" + i);
+      }
+      assertEquals(2, reported.size());
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertEquals(3, reported.size());
+      assertEquals(5, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldExecuteAllPendingBatchesWhenTheSessionHoldsTooManyRows() {
+    List<BatchResult> reported = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchResultListener(reported::add);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertItem(1, "item1");
+      mapper.insertItem(2, "item2");
+      mapper.renameItem(1, "renamed1");
+      assertTrue(reported.isEmpty());
+      mapper.renameItem(2, "renamed2");
+      // maxBatchRows is 4: the inserts run before the updates
+      assertEquals(2, reported.size());
+      assertEquals("org.apache.ibatis.submitted.batch_size.Mapper.insertItem", reported.get(0).getMappedStatement().getId());
+      assertEquals(2, reported.get(1).getUpdateCounts().length);
+      assertTrue(sqlSession.flushStatements().isEmpty());
+    }
+  }
+
+  @Test
+  void shouldDiscardTheExecutedBatchesOnRollback() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertInPairs(i, "item" + i);
+      }
+      sqlSession.rollback(true);
+      assertTrue(sqlSession.flushStatements().isEmpty());
+      assertEquals(0, mapper.countItems());
+    }
+  }
+
+}
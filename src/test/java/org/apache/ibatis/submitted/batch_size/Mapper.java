@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_size;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Insert("insert into items (id, name) values (#{id}, #{name})")
+  @Options(batchSize = 2)
+  int insertInPairs(@Param("id") int id, @Param("name") String name);
+
+  int insertItem(@Param("id") int id, @Param("name") String name);
+
+  int renameItem(@Param("id") int id, @Param("name") String name);
+
+  @Select("select count(*) from items")
+  int countItems();
+
+}
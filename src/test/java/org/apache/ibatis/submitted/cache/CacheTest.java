@@ -23,6 +23,7 @@ import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.Property;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.annotations.CacheNamespaceRef;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
@@ -324,4 +325,37 @@ class CacheTest {
   private interface InvalidCacheNamespaceRefEmptyMapper {
   }
 
+  @Test
+  void shouldCollectCacheStatistics() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+      Assertions.assertEquals(2, sqlSession.getMapper(PersonMapper.class).findAll().size());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+      Assertions.assertEquals(2, sqlSession.getMapper(PersonMapper.class).findAll().size());
+    }
+    CacheStatistics.Snapshot snapshot = sqlSessionFactory.getConfiguration().getCacheStatisticsSnapshot()
+        .get(PersonMapper.class.getName());
+    Assertions.assertEquals(1, snapshot.getHitCount());
+    Assertions.assertEquals(1, snapshot.getMissCount());
+    Assertions.assertEquals(1, snapshot.getPutCount());
+    Assertions.assertEquals(1, snapshot.getLoadCount());
+    Assertions.assertEquals(1, snapshot.getSize());
+    Assertions.assertEquals(0.5, snapshot.getHitRatio());
+  }
+
+  @Test
+  void shouldNotShareQueriesOfSessionsWithPendingChanges() {
+    sqlSessionFactory.getConfiguration().setCacheLoadCoalescingEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+      PersonMapper pm = sqlSession.getMapper(PersonMapper.class);
+      pm.delete(1);
+      Assertions.assertEquals(1, pm.findAll().size());
+      sqlSession.rollback();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+      Assertions.assertEquals(2, sqlSession.getMapper(PersonMapper.class).findAll().size());
+    }
+    Assertions.assertEquals(0, sqlSessionFactory.getConfiguration().getCacheLoadCoalescer().getLoadCount());
+  }
+
 }
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.sql.ResultSet;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.ColumnarResultHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_result/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar_result/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadColumnsIntoPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResultHandler handler = new ColumnarResultHandler(long.class, int.class, double.class);
+      sqlSession.getMapper(Mapper.class).selectAmounts(handler);
+      assertEquals(4, handler.getRowCount());
+      assertArrayEquals(new long[] { 1, 2, 3, 4 }, handler.getLongs(0));
+      assertArrayEquals(new int[] { 10, 10, 20, 30 }, handler.getInts(1));
+      assertArrayEquals(new double[] { 1.5, 2.5, 0, 4.0 }, handler.getDoubles(2));
+      assertTrue(handler.isNull(2, 2));
+      assertFalse(handler.isNull(2, 1));
+      assertFalse(handler.isNull(0, 2));
+    }
+  }
+
+  @Test
+  void shouldReadTheFirstColumnsOnly() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResultHandler handler = new ColumnarResultHandler(long.class);
+      sqlSession.select("org.apache.ibatis.submitted.columnar_result.Mapper.selectAmounts", handler);
+      assertArrayEquals(new long[] { 1, 2, 3, 4 }, handler.getLongs(0));
+      assertThrows(ExecutorException.class, () -> handler.getInts(0));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResultHandler handler = new ColumnarResultHandler(long.class, double.class);
+      sqlSession.getMapper(Mapper.class).selectAmountsWithRowBounds(new RowBounds(1, 2), handler);
+      assertArrayEquals(new long[] { 2, 3 }, handler.getLongs(0));
+    }
+  }
+
+  @Test
+  void shouldGrowTheArrays() throws Exception {
+    ColumnarResultHandler handler = new ColumnarResultHandler(int.class);
+    ResultSet rs = mock(ResultSet.class);
+    for (int i = 0; i < 1000; i++) {
+      when(rs.getInt(1)).thenReturn(i);
+      handler.handleRow(rs);
+    }
+    int[] values = handler.getInts(0);
+    assertEquals(1000, values.length);
+    assertEquals(999, values[999]);
+  }
+
+  @Test
+  void shouldFailWhenTheStatementReturnsTooFewColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarResultHandler handler = new ColumnarResultHandler(long.class, int.class, double.class, double.class);
+      assertThrows(PersistenceException.class, () -> sqlSession.getMapper(Mapper.class).selectAmounts(handler));
+    }
+  }
+
+  @Test
+  void shouldRejectUnsupportedColumnTypes() {
+    assertThrows(ExecutorException.class, () -> new ColumnarResultHandler(String.class));
+    assertThrows(ExecutorException.class, () -> new ColumnarResultHandler());
+  }
+
+}
@@ -0,0 +1,28 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table amounts if exists;
+
+create table amounts (
+  id bigint,
+  owner int,
+  amount double
+);
+
+insert into amounts (id, owner, amount) values (1, 10, 1.5);
+insert into amounts (id, owner, amount) values (2, 10, 2.5);
+insert into amounts (id, owner, amount) values (3, 20, null);
+insert into amounts (id, owner, amount) values (4, 30, 4.0);
@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_result;
+
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  @Select("select id, owner, amount from amounts order by id")
+  @ResultType(Long.class)
+  void selectAmounts(ResultHandler<?> handler);
+
+  @Select("select id, owner, amount from amounts order by id")
+  @ResultType(Long.class)
+  void selectAmountsWithRowBounds(RowBounds rowBounds, ResultHandler<?> handler);
+
+}
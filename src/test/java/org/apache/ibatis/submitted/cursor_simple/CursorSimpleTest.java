@@ -29,9 +29,13 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class CursorSimpleTest {
 
@@ -468,4 +472,36 @@ class CursorSimpleTest {
       Assertions.assertTrue(cursor.isConsumed());
     }
   }
+
+  @Test
+  void shouldStreamUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getNullUsers(new RowBounds(1, 2));
+      Spliterator<User> spliterator = cursor.spliterator();
+      Assertions.assertEquals(2, spliterator.estimateSize());
+      Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+      Assertions.assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      try (Stream<User> users = cursor.stream()) {
+        Assertions.assertEquals(Arrays.asList("User2", "User4"),
+            users.filter(user -> user.getId() % 2 == 0).map(User::getName).collect(Collectors.toList()));
+      }
+      Assertions.assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldCloseCursorWhenStreamIsClosed() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      try (Stream<User> users = cursor.stream()) {
+        Assertions.assertEquals("User1", users.findFirst().get().getName());
+        Assertions.assertTrue(cursor.isOpen());
+      }
+      Assertions.assertFalse(cursor.isOpen());
+      Assertions.assertFalse(cursor.isConsumed());
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadAllUsersAhead() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Assertions.assertTrue(cursor instanceof PrefetchingCursor);
+      Assertions.assertFalse(cursor.isOpen());
+      Assertions.assertEquals(-1, cursor.getCurrentIndex());
+
+      List<String> names = new ArrayList<>();
+      Iterator<User> iterator = cursor.iterator();
+      while (iterator.hasNext()) {
+        Assertions.assertTrue(cursor.isOpen());
+        names.add(iterator.next().getName());
+        Assertions.assertEquals(names.size() - 1, cursor.getCurrentIndex());
+      }
+      Assertions.assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), names);
+      Assertions.assertFalse(cursor.isOpen());
+      Assertions.assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldKeepNullItemsAndRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getNullUsers(new RowBounds(1, 2));
+      Iterator<User> iterator = cursor.iterator();
+      Assertions.assertEquals("Kate", iterator.next().getName());
+      Assertions.assertEquals(1, cursor.getCurrentIndex());
+      Assertions.assertNull(iterator.next());
+      Assertions.assertEquals(2, cursor.getCurrentIndex());
+      Assertions.assertFalse(iterator.hasNext());
+      Assertions.assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldCloseBeforeConsumed() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> cursor = mapper.getAllUsers();
+      try (Stream<User> users = cursor.stream()) {
+        Assertions.assertEquals("User1", users.findFirst().get().getName());
+      }
+      Assertions.assertFalse(cursor.isOpen());
+      Assertions.assertFalse(cursor.isConsumed());
+
+      // the session can be used again once the cursor is closed
+      try (Stream<User> users = mapper.getAllUsers().stream()) {
+        Assertions.assertEquals(5, users.collect(Collectors.toList()).size());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,195 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reactive.Publisher;
+import org.apache.ibatis.reactive.Subscriber;
+import org.apache.ibatis.reactive.Subscription;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PublisherTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static ExecutorService publisherExecutor;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    publisherExecutor = Executors.newSingleThreadExecutor();
+    sqlSessionFactory.getConfiguration().setPublisherExecutor(publisherExecutor);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @AfterAll
+  static void tearDown() {
+    publisherExecutor.shutdown();
+  }
+
+  @Test
+  void shouldPublishUsersOnDemand() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      sqlSession.getMapper(Mapper.class).publishAllUsers().subscribe(subscriber);
+
+      subscriber.subscription.request(2);
+      awaitPublisher();
+      Assertions.assertEquals(Arrays.asList("User1", "User2"), subscriber.names());
+      Assertions.assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(Long.MAX_VALUE);
+      Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+      Assertions.assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), subscriber.names());
+      Assertions.assertTrue(subscriber.completed);
+      Assertions.assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldShutDownOnlyTheCreatedExecutors() {
+    Configuration configuration = new Configuration();
+    configuration.setPublisherExecutor(publisherExecutor);
+    ExecutorService prefetchExecutor = configuration.getCursorPrefetchExecutor();
+    Assertions.assertSame(prefetchExecutor, configuration.getCursorPrefetchExecutor());
+
+    configuration.shutdownExecutors();
+    Assertions.assertTrue(prefetchExecutor.isShutdown());
+    Assertions.assertFalse(publisherExecutor.isShutdown());
+    Assertions.assertSame(publisherExecutor, configuration.getPublisherExecutor());
+
+    // a new executor is created if it is used again
+    ExecutorService newPrefetchExecutor = configuration.getCursorPrefetchExecutor();
+    Assertions.assertNotSame(prefetchExecutor, newPrefetchExecutor);
+    configuration.shutdownExecutors();
+    Assertions.assertTrue(newPrefetchExecutor.isShutdown());
+  }
+
+  @Test
+  void shouldCompleteWhenTheDemandIsMet() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      Publisher<User> publisher = sqlSession.selectPublisher("org.apache.ibatis.submitted.cursor_simple.Mapper.getNullUsers",
+          null, new RowBounds(0, 2));
+      publisher.subscribe(subscriber);
+
+      subscriber.subscription.request(1);
+      Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+      // the null item is skipped
+      Assertions.assertEquals(Arrays.asList("Kate"), subscriber.names());
+      Assertions.assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  void shouldCloseTheCursorOnCancel() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      mapper.publishAllUsers().subscribe(subscriber);
+
+      subscriber.subscription.request(1);
+      awaitPublisher();
+      subscriber.subscription.cancel();
+      subscriber.subscription.request(1);
+      awaitPublisher();
+      Assertions.assertEquals(Arrays.asList("User1"), subscriber.names());
+      Assertions.assertFalse(subscriber.completed);
+      Assertions.assertNull(subscriber.error);
+
+      // the session can be used again once the subscription is cancelled
+      Assertions.assertEquals(5, sqlSession.selectList("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers").size());
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidRequestsAndSecondSubscribers() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Publisher<User> publisher = sqlSession.getMapper(Mapper.class).publishAllUsers();
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      publisher.subscribe(subscriber);
+      subscriber.subscription.request(0);
+      Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+      Assertions.assertTrue(subscriber.error instanceof IllegalArgumentException);
+
+      RecordingSubscriber secondSubscriber = new RecordingSubscriber();
+      publisher.subscribe(secondSubscriber);
+      Assertions.assertTrue(secondSubscriber.error instanceof IllegalStateException);
+    }
+  }
+
+  private static void awaitPublisher() throws Exception {
+    // the publisher executor runs one task at a time
+    publisherExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+  }
+
+  private static class RecordingSubscriber implements Subscriber<User> {
+    private final List<User> users = new ArrayList<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile Subscription subscription;
+    private volatile boolean completed;
+    private volatile Throwable error;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public synchronized void onNext(User item) {
+      users.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+      terminated.countDown();
+    }
+
+    synchronized List<String> names() {
+      return users.stream().map(User::getName).collect(Collectors.toList());
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.local_cache_bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheBoundsTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/local_cache_bounds/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/local_cache_bounds/CreateDB.sql");
+  }
+
+  @Test
+  void shouldKeepAllResultsByDefault() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = mapper.getUser(1);
+      for (int i = 2; i <= 3; i++) {
+        mapper.getUser(i);
+      }
+      assertSame(user1, mapper.getUser(1));
+    }
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedResultBeyondLocalCacheSize() {
+    sqlSessionFactory.getConfiguration().setLocalCacheSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = mapper.getUser(1);
+      User user2 = mapper.getUser(2);
+      assertSame(user1, mapper.getUser(1));
+      User user3 = mapper.getUser(3);
+      assertSame(user1, mapper.getUser(1));
+      assertSame(user3, mapper.getUser(3));
+      assertNotSame(user2, mapper.getUser(2));
+    }
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedResultBeyondLocalCacheMaxRows() {
+    sqlSessionFactory.getConfiguration().setLocalCacheMaxRows(3);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = mapper.getUsers().get(0);
+      assertSame(user1, mapper.getUsers().get(0));
+      User user2 = mapper.getUser(2);
+      assertSame(user2, mapper.getUser(2));
+      assertNotSame(user1, mapper.getUsers().get(0));
+      assertNotSame(user2, mapper.getUser(2));
+    }
+  }
+
+  @Test
+  void shouldNotKeepResultsOfStatementNotUsingLocalCache() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertFalse(configuration.getMappedStatement("org.apache.ibatis.submitted.local_cache_bounds.Mapper.getUserOnce").isUseLocalCache());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = mapper.getUserOnce(1);
+      assertNotSame(user1, mapper.getUserOnce(1));
+      assertEquals("User1", user1.getName());
+    }
+  }
+
+  @Test
+  void shouldResolveCircularReferencesOfStatementNotUsingLocalCache() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = mapper.getUserWithFriend(1);
+      assertEquals("User2", user1.getFriend().getName());
+      assertSame(user1, user1.getFriend().getFriend());
+      assertNotSame(user1, mapper.getUserWithFriend(1));
+    }
+  }
+
+}
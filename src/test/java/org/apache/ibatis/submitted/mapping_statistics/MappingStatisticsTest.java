@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapping_statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.MappingStatistics;
+import org.apache.ibatis.executor.resultset.MappingStatistics.Phase;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappingStatisticsTest {
+
+  private static final String SELECT_POSTS = "org.apache.ibatis.submitted.mapping_statistics.Mapper.selectPosts";
+  private static final String SELECT_POST_CURSOR = "org.apache.ibatis.submitted.mapping_statistics.Mapper.selectPostCursor";
+  private static final String SELECT_AUTHORS = "org.apache.ibatis.submitted.mapping_statistics.Mapper.selectAuthorsWithPosts";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/mapping_statistics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/mapping_statistics/CreateDB.sql");
+  }
+
+  @Test
+  void shouldTimeTheMappingOfSimpleResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(3, mapper.selectPosts().size());
+      sqlSession.clearCache();
+      assertEquals(3, mapper.selectPosts().size());
+    }
+    MappingStatistics statistics = sqlSessionFactory.getConfiguration().getMappingStatistics(SELECT_POSTS);
+    assertEquals(2, statistics.getExecutionCount());
+    assertEquals(6, statistics.getRowCount());
+    assertTrue(statistics.getTotalTime() > 0);
+    // the last call of next() of each execution finds no row
+    assertEquals(8, statistics.getPhaseCount(Phase.FETCH));
+    assertEquals(6, statistics.getPhaseCount(Phase.CREATE_RESULT_OBJECT));
+    assertEquals(6, statistics.getPhaseCount(Phase.AUTOMATIC_MAPPING));
+    assertEquals(6, statistics.getPhaseCount(Phase.PROPERTY_MAPPING));
+    assertEquals(0, statistics.getPhaseCount(Phase.NESTED_RESULT_MAPPING));
+    assertEquals(0, statistics.getPhaseCount(Phase.ROW_KEY));
+    assertTrue(statistics.getPhaseTime(Phase.CREATE_RESULT_OBJECT) > 0);
+  }
+
+  @Test
+  void shouldTimeTheMappingOfNestedResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(Mapper.class).selectAuthorsWithPosts();
+      assertEquals(2, authors.size());
+      assertEquals(2, authors.get(0).getPosts().size());
+    }
+    MappingStatistics statistics = sqlSessionFactory.getConfiguration().getMappingStatistics(SELECT_AUTHORS);
+    assertEquals(1, statistics.getExecutionCount());
+    assertEquals(3, statistics.getRowCount());
+    // a key for the author and one for the post of each row
+    assertEquals(6, statistics.getPhaseCount(Phase.ROW_KEY));
+    // the nested mappings of each author row and of each post, which has none
+    assertEquals(6, statistics.getPhaseCount(Phase.NESTED_RESULT_MAPPING));
+    // 2 authors and 3 posts
+    assertEquals(5, statistics.getPhaseCount(Phase.CREATE_RESULT_OBJECT));
+  }
+
+  @Test
+  void shouldCountTheRowsOfCursors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Post> posts = sqlSession.getMapper(Mapper.class).selectPostCursor()) {
+      int count = 0;
+      for (Post post : posts) {
+        count++;
+      }
+      assertEquals(3, count);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    MappingStatistics statistics = sqlSessionFactory.getConfiguration().getMappingStatistics(SELECT_POST_CURSOR);
+    assertEquals(1, statistics.getExecutionCount());
+    assertEquals(3, statistics.getRowCount());
+    assertEquals(3, statistics.getPhaseCount(Phase.CREATE_RESULT_OBJECT));
+  }
+
+  @Test
+  void shouldSnapshotAndResetTheStatistics() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectPosts();
+    }
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Map<String, MappingStatistics.Snapshot> snapshots = configuration.getMappingStatisticsSnapshot();
+    assertEquals(1, snapshots.size());
+    MappingStatistics.Snapshot snapshot = snapshots.get(SELECT_POSTS);
+    assertEquals(3, snapshot.getRowCount());
+    assertTrue(snapshot.toString().startsWith("MappingStatistics [" + SELECT_POSTS + "]: executions=1, rows=3"));
+
+    configuration.getMappingStatistics(SELECT_POSTS).reset();
+    assertEquals(0, configuration.getMappingStatistics(SELECT_POSTS).getRowCount());
+    assertEquals(3, snapshot.getRowCount());
+  }
+
+  @Test
+  void shouldNotRecordWhenDisabled() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setMappingStatisticsEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectPosts();
+    }
+    assertFalse(configuration.getMappingStatisticsSnapshot().containsKey(SELECT_POSTS));
+  }
+
+}
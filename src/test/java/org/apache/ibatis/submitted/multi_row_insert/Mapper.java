@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  int insertItems(List<Item> items);
+
+  @Insert("insert into items (name) values (#{name})")
+  @Options(multiRowInsertSize = 2)
+  int insertNames(String[] names);
+
+  @Insert("insert into items (name) values (#{name})")
+  @Options(multiRowInsertSize = 2, useGeneratedKeys = true, keyProperty = "id")
+  int insertAll(@Param("items") List<Item> items);
+
+  @Select("select * from items order by id")
+  List<Item> selectItems();
+
+}
@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRepeatTheValuesRow() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.multi_row_insert.Mapper.insertItems");
+    List<Item> rows = items(3);
+    BoundSql boundSql = ms.getMultiRowInsertStatement().getBoundSql(rows);
+    assertEquals("insertintoitems(name)values(?),(?),(?)", boundSql.getSql().replaceAll("\\s+", ""));
+    assertEquals(3, boundSql.getParameterMappings().size());
+    assertEquals("item3", boundSql.getAdditionalParameter(boundSql.getParameterMappings().get(2).getProperty()));
+  }
+
+  @Test
+  void shouldInsertByChunksAndAssignTheGeneratedKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> items = items(7);
+      assertEquals(7, mapper.insertItems(items));
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals(Integer.valueOf(i + 1), items.get(i).getId());
+      }
+      List<Item> inserted = mapper.selectItems();
+      assertEquals(7, inserted.size());
+      assertEquals("item7", inserted.get(6).getName());
+    }
+  }
+
+  @Test
+  void shouldBatchTheChunks() {
+    sqlSessionFactory.getConfiguration().setBatchGroupingEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> items = items(8);
+      mapper.insertItems(items.subList(0, 4));
+      mapper.insertItems(items.subList(4, 8));
+      List<BatchResult> results = sqlSession.flushStatements();
+      // the chunks of 3 rows, then the remaining rows, grouped as batchGroupingEnabled is on
+      assertEquals(2, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(2, results.get(1).getUpdateCounts().length);
+      for (int i = 0; i < items.size(); i++) {
+        assertTrue(items.get(i).getId() != null);
+      }
+      assertEquals(8, mapper.selectItems().size());
+    }
+  }
+
+  @Test
+  void shouldCountTheRowsOfTheChunksForMaxBatchRows() {
+    List<BatchResult> reported = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setMaxBatchRows(6);
+    sqlSessionFactory.getConfiguration().setBatchResultListener(reported::add);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertItems(items(7));
+      // the two chunks of 3 rows reach maxBatchRows, the remaining row is still pending
+      assertEquals(1, reported.size());
+      assertEquals(2, reported.get(0).getUpdateCounts().length);
+      assertEquals(1, sqlSession.flushStatements().size());
+      assertEquals(7, mapper.selectItems().size());
+    }
+  }
+
+  @Test
+  void shouldInsertTheElementsOfAnArray() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(3, mapper.insertNames(new String[] { "a", "b", "c" }));
+      assertEquals(3, mapper.selectItems().size());
+    }
+  }
+
+  @Test
+  void shouldInsertTheElementsOfANamedParameter() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> items = items(5);
+      assertEquals(5, mapper.insertAll(items));
+      assertEquals(Integer.valueOf(5), items.get(4).getId());
+      List<Item> inserted = mapper.selectItems();
+      assertEquals(5, inserted.size());
+      assertEquals("item5", inserted.get(4).getName());
+    }
+  }
+
+  @Test
+  void shouldRejectRowsWithDifferentSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = items(3);
+      items.get(1).setName(null);
+      assertThrows(PersistenceException.class, () -> sqlSession.getMapper(Mapper.class).insertItems(items));
+    }
+  }
+
+  private static List<Item> items(int count) {
+    List<Item> items = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      items.add(new Item("item" + i));
+    }
+    return items;
+  }
+
+}
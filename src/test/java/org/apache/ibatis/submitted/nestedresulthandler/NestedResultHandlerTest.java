@@ -16,6 +16,8 @@
 package org.apache.ibatis.submitted.nestedresulthandler;
 
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.BaseDataTest;
@@ -82,6 +84,27 @@ class NestedResultHandlerTest {
     }
   }
 
+  @Test
+  void shouldHandOverEachPersonWithAllItsItems() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Person> persons = new ArrayList<>();
+      List<Integer> itemCounts = new ArrayList<>();
+      sqlSession.select("getPersons", context -> {
+        Person person = (Person) context.getResultObject();
+        persons.add(person);
+        // the items must be complete when the person is handed over
+        itemCounts.add(person.getItems().size());
+      });
+      Assertions.assertEquals(3, persons.size());
+      Assertions.assertEquals(Arrays.asList(2, 2, 1), itemCounts);
+      Assertions.assertEquals("grandma", persons.get(0).getName());
+      Assertions.assertEquals("sister", persons.get(1).getName());
+      Assertions.assertEquals("brother", persons.get(2).getName());
+      Assertions.assertEquals(itemCounts, Arrays.asList(persons.get(0).getItems().size(), persons.get(1).getItems().size(),
+          persons.get(2).getItems().size()));
+    }
+  }
+
   @Test
   void testUnorderedGetPersonWithHandler() {
     try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
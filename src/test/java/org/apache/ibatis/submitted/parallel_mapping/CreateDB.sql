@@ -0,0 +1,34 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table items if exists;
+
+create table items (
+  id int,
+  name varchar(20),
+  price decimal(10, 2),
+  released date,
+  description clob,
+  kind varchar(10)
+);
+
+insert into items values (1, 'pen', 1.50, '2019-01-01', 'a blue pen', 'P');
+insert into items values (2, 'pencil', 0.80, '2019-01-02', null, 'P');
+insert into items values (3, 'eraser', null, null, 'a soft eraser', 'P');
+insert into items values (4, 'notebook', 3.20, '2019-02-01', 'a notebook', 'B');
+insert into items values (5, 'ruler', 1.10, '2019-03-01', null, 'P');
+insert into items values (6, 'diary', 12.00, '2019-04-01', 'a diary', 'B');
+insert into items values (7, 'marker', 2.30, '2019-05-01', null, 'P');
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_mapping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadTheParallelMappingAttribute() {
+    assertTrue(sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItems").isParallelMapping());
+    assertFalse(sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsSerially").isParallelMapping());
+    assertTrue(sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.parallel_mapping.Mapper.selectItemsByAnnotation").isParallelMapping());
+  }
+
+  @Test
+  void shouldMapTheSameResultsInRowOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> items = mapper.selectItems();
+      assertEquals(7, items.size());
+      assertEquals(toStrings(mapper.selectItemsSerially()), toStrings(items));
+      Item eraser = items.get(2);
+      assertEquals("eraser", eraser.getName());
+      assertNull(eraser.getPrice());
+      assertNull(eraser.getReleased());
+      assertEquals("a soft eraser", eraser.getDescription());
+      Item notebook = items.get(3);
+      assertTrue(notebook instanceof Book);
+      assertEquals(new BigDecimal("3.20"), notebook.getPrice());
+      assertEquals(LocalDate.of(2019, 2, 1), notebook.getReleased());
+    }
+  }
+
+  @Test
+  void shouldMapAnnotatedStatementInParallel() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).selectItemsByAnnotation();
+      assertEquals(7, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals(Integer.valueOf(i + 1), items.get(i).getId());
+      }
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = sqlSession.getMapper(Mapper.class).selectItemsWithRowBounds(new RowBounds(2, 3));
+      assertEquals(3, items.size());
+      assertEquals("eraser", items.get(0).getName());
+      assertEquals("ruler", items.get(2).getName());
+    }
+  }
+
+  @Test
+  void shouldStopWhenTheResultHandlerStops() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Item> items = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).selectItemsWithHandler(context -> {
+        items.add(context.getResultObject());
+        if (context.getResultCount() == 3) {
+          context.stop();
+        }
+      });
+      assertEquals(3, items.size());
+      assertEquals("eraser", items.get(2).getName());
+    }
+  }
+
+  @Test
+  void shouldPropagateMappingErrors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(PersistenceException.class, mapper::selectNamesAsIds);
+    }
+  }
+
+  private static List<String> toStrings(List<Item> items) {
+    return items.stream().map(Item::toString).collect(Collectors.toList());
+  }
+
+}